@@ -0,0 +1,62 @@
+package com.github.skarllot.android.skllib.benchmark;
+
+import com.github.skarllot.android.skllib.col.Searchable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * A searchable element with a numeric key and a text name, as found on list screens.
+ */
+final class Item implements Searchable {
+    private static final String[] WORDS = {
+            "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel",
+            "india", "juliett", "kilo", "lima", "mike", "november", "oscar", "papa"
+    };
+
+    final int key;
+    final String name;
+
+    Item(int key, String name) {
+        this.key = key;
+        this.name = name;
+    }
+
+    /**
+     * Creates a list of elements with random keys and names, seeded for repeatable runs.
+     *
+     * @param size The number of elements.
+     * @param seed The seed of the random generator.
+     * @return A new list of elements.
+     */
+    static List<Item> createList(int size, long seed) {
+        final Random random = new Random(seed);
+        final List<Item> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final String name = WORDS[random.nextInt(WORDS.length)] + ' '
+                    + WORDS[random.nextInt(WORDS.length)] + ' ' + random.nextInt(size);
+            list.add(new Item(random.nextInt(size), name));
+        }
+
+        return list;
+    }
+
+    @Override
+    public boolean match(String filter) {
+        return name.contains(filter);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Item && ((Item) o).key == key;
+    }
+
+    @Override
+    public int hashCode() {
+        return key;
+    }
+}
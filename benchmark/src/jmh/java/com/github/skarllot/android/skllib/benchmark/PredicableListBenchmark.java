@@ -0,0 +1,91 @@
+package com.github.skarllot.android.skllib.benchmark;
+
+import com.github.skarllot.android.skllib.col.PredicableList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Measures the throughput of filtering a {@link PredicableList} by text.
+ * <p>Selections are kept by the list, so each invocation starts from a prepared state: either no
+ * previous selection, or the selection of a filter one character shorter.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class PredicableListBenchmark {
+
+    @Benchmark
+    public void getSelection(FreshFilter state, Blackhole blackhole) {
+        for (Item item : state.list.getSelection()) {
+            blackhole.consume(item);
+        }
+    }
+
+    @Benchmark
+    public void getSelectionRefined(RefinedFilter state, Blackhole blackhole) {
+        for (Item item : state.list.getSelection()) {
+            blackhole.consume(item);
+        }
+    }
+
+    /**
+     * A list which selection is made over every element of target.
+     */
+    @State(Scope.Thread)
+    public static class FreshFilter {
+        @Param({"1000", "100000", "1000000"})
+        public int size;
+
+        @Param({"echo", "lima kilo"})
+        public String filter;
+
+        PredicableList<Item> list;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            list = new PredicableList<>(Item.createList(size, 1));
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            list.invalidate();
+            list.setFilter(filter);
+        }
+    }
+
+    /**
+     * A list which selection is refined from the selection of a shorter filter.
+     */
+    @State(Scope.Thread)
+    public static class RefinedFilter {
+        @Param({"1000", "100000", "1000000"})
+        public int size;
+
+        @Param({"echo", "lima kilo"})
+        public String filter;
+
+        PredicableList<Item> list;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            list = new PredicableList<>(Item.createList(size, 1));
+            list.setRefinement(true);
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            list.setFilter(filter.substring(0, filter.length() - 1));
+            list.getSelection().iterator();
+            list.setFilter(filter);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.skarllot.android.skllib.benchmark;
+
+import com.github.skarllot.android.skllib.Func2;
+import com.github.skarllot.android.skllib.col.Query;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Comparator;
+import java.util.List;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Measures the throughput of common {@link Query} operations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+    private static final Func2<Boolean, Item> EVEN_KEY = new Func2<Boolean, Item>() {
+        @Override
+        public Boolean call(Item item) {
+            return (item.key & 1) == 0;
+        }
+    };
+    private static final Comparator<Item> KEY = new Comparator<Item>() {
+        @Override
+        public int compare(Item lhs, Item rhs) {
+            return lhs.key < rhs.key ? -1 : (lhs.key == rhs.key ? 0 : 1);
+        }
+    };
+    private static final Func2<String, Item> NAME = new Func2<String, Item>() {
+        @Override
+        public String call(Item item) {
+            return item.name;
+        }
+    };
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Item> items;
+    private List<Item> comparee;
+    private Item missing;
+
+    @Setup
+    public void setUp() {
+        items = Item.createList(size, 1);
+        comparee = Item.createList(size / 2, 2);
+        missing = new Item(-1, "");
+    }
+
+    @Benchmark
+    public int count() {
+        return Query.count(Query.where(items, EVEN_KEY));
+    }
+
+    @Benchmark
+    public void except(Blackhole blackhole) {
+        for (Item item : Query.except(items, comparee)) {
+            blackhole.consume(item);
+        }
+    }
+
+    @Benchmark
+    public boolean exists() {
+        return Query.exists(items, missing, KEY);
+    }
+
+    @Benchmark
+    public void select(Blackhole blackhole) {
+        for (String name : Query.select(items, NAME)) {
+            blackhole.consume(name);
+        }
+    }
+
+    @Benchmark
+    public List<Item> toList() {
+        return Query.toList(Query.where(items, EVEN_KEY));
+    }
+
+    @Benchmark
+    public void where(Blackhole blackhole) {
+        for (Item item : Query.where(items, EVEN_KEY)) {
+            blackhole.consume(item);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.skarllot.android.skllib.benchmark;
+
+import com.github.skarllot.android.skllib.col.SearchableUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Measures the throughput of {@link SearchableUtil#matchAny(Iterable, String)} when no element
+ * matches, so every element is scanned.
+ */
+@BenchmarkMode(Mode.Throughput)
+@State(Scope.Benchmark)
+public class SearchableBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Item> items;
+
+    @Setup
+    public void setUp() {
+        items = Item.createList(size, 1);
+    }
+
+    @Benchmark
+    public boolean matchAny() {
+        return SearchableUtil.matchAny(items, "zulu");
+    }
+}
@@ -0,0 +1,25 @@
+package android.os;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Stands for the framework Handler on a plain JVM, running posted tasks right away.
+ */
+public class Handler {
+    public Handler(Looper looper) {
+    }
+
+    public boolean post(Runnable r) {
+        r.run();
+        return true;
+    }
+
+    public boolean postDelayed(Runnable r, long delayMillis) {
+        r.run();
+        return true;
+    }
+
+    public void removeCallbacks(Runnable r) {
+    }
+}
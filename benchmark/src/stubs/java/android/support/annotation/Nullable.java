@@ -0,0 +1,14 @@
+package android.support.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Stands for the support library annotation on a plain JVM.
+ */
+@Retention(RetentionPolicy.CLASS)
+public @interface Nullable {
+}
@@ -0,0 +1,13 @@
+package com.android.internal.util;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Stands for the framework Predicate on a plain JVM.
+ *
+ * @param <T> The type of parameter.
+ */
+public interface Predicate<T> {
+    boolean apply(T t);
+}
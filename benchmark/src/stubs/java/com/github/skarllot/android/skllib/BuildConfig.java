@@ -0,0 +1,11 @@
+package com.github.skarllot.android.skllib;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Stands for the generated build configuration, as a release build.
+ */
+public final class BuildConfig {
+    public static final boolean DEBUG = false;
+}
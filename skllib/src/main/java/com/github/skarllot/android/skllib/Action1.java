@@ -0,0 +1,13 @@
+package com.github.skarllot.android.skllib;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides a general purpose action with one parameter and no return.
+ *
+ * @param <T> The type of parameter.
+ */
+public interface Action1<T> {
+    void call(T t);
+}
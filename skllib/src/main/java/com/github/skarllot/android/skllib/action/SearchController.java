@@ -0,0 +1,252 @@
+package com.github.skarllot.android.skllib.action;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+
+import com.github.skarllot.android.skllib.Disposable;
+import com.github.skarllot.android.skllib.col.PredicableList;
+import com.github.skarllot.android.skllib.col.Query;
+import com.github.skarllot.android.skllib.col.QueryCallback;
+import com.github.skarllot.android.skllib.col.Searchable;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Filters a PredicableList from search text changes, off the main thread.
+ * <p>Text changes are debounced, so a filter only runs once typing pauses for the specified
+ * delay. Filters run on the executor, one at a time, and only the selection of the newest text is
+ * delivered to the callback on the main thread; selections of stale text are discarded.
+ * <p>Set an instance as listener of a {@link ToolbarSearcher} to follow its search text. Its
+ * methods must be called from the main thread.
+ * <p>The list is owned by the controller, since filters change it on background threads: change
+ * its target through {@link #setTarget(Iterable)}, and hold the lock of the list for any other
+ * use, as in {@code synchronized (list) { ... }}.
+ *
+ * @param <T> The type of elements.
+ */
+public class SearchController<T extends Searchable> implements SearchableListener, Disposable {
+    private final PredicableList<T> list;
+    private final Executor executor;
+    private final long delay;
+    private final QueryCallback<List<T>> callback;
+    private final Handler handler;
+    private final Runnable debounce;
+
+    // Incremented by each query started or dropped, so older queries know they are stale
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicInteger queriesRequested = new AtomicInteger();
+    private final AtomicInteger queriesRun = new AtomicInteger();
+    private final AtomicInteger resultsDiscarded = new AtomicInteger();
+    // The target to set on the list before the next filter runs
+    private final AtomicReference<Iterable<T>> pendingTarget = new AtomicReference<>();
+    private String pendingText = null;
+    private boolean pending = false;
+    private String lastText = null;
+    private boolean started = false;
+
+    /**
+     * Creates a new instance of SearchController.
+     *
+     * @param list     The list to filter.
+     * @param executor The executor to run filters on.
+     * @param delay    The time, in milliseconds, that text must stay unchanged to be filtered.
+     * @param callback The callback to deliver the selection to on the main thread.
+     */
+    public SearchController(
+            final PredicableList<T> list,
+            final Executor executor,
+            final long delay,
+            final QueryCallback<List<T>> callback
+    ) {
+        if (list == null) {
+            throw new NullPointerException("list == null");
+        }
+        if (executor == null) {
+            throw new NullPointerException("executor == null");
+        }
+        if (callback == null) {
+            throw new NullPointerException("callback == null");
+        }
+        if (delay < 0) {
+            throw new IllegalArgumentException("delay < 0");
+        }
+
+        this.list = list;
+        this.executor = executor;
+        this.delay = delay;
+        this.callback = callback;
+        this.handler = new Handler(Looper.getMainLooper());
+        this.debounce = new Runnable() {
+            @Override
+            public void run() {
+                pending = false;
+                start(pendingText);
+            }
+        };
+    }
+
+    /**
+     * Drops the pending text and the running filter, so no selection is delivered.
+     */
+    public void cancel() {
+        handler.removeCallbacks(debounce);
+        pending = false;
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void dispose() {
+        cancel();
+    }
+
+    /**
+     * Gets the number of text changes that were not filtered, since newer text came first.
+     *
+     * @return The number of coalesced queries.
+     */
+    public int getQueriesCoalesced() {
+        return queriesRequested.get() - queriesRun.get();
+    }
+
+    /**
+     * Gets the number of text changes, submissions and target changes received.
+     *
+     * @return The number of requested queries.
+     */
+    public int getQueriesRequested() {
+        return queriesRequested.get();
+    }
+
+    /**
+     * Gets the number of filters run.
+     *
+     * @return The number of queries run.
+     */
+    public int getQueriesRun() {
+        return queriesRun.get();
+    }
+
+    /**
+     * Gets the number of selections discarded, since newer text came while they were filtered.
+     *
+     * @return The number of discarded results.
+     */
+    public int getResultsDiscarded() {
+        return resultsDiscarded.get();
+    }
+
+    @Override
+    public void onClick(View v) {
+        // Opening the search view leaves its text unchanged, so there is nothing to filter yet
+    }
+
+    @Override
+    public boolean onClose() {
+        cancel();
+        return false;
+    }
+
+    @Override
+    public boolean onQueryTextChange(String newText) {
+        queriesRequested.incrementAndGet();
+        handler.removeCallbacks(debounce);
+        if (!pending) {
+            // Newer text makes the running filter stale
+            generation.incrementAndGet();
+        }
+
+        pendingText = newText;
+        pending = true;
+        handler.postDelayed(debounce, delay);
+        return true;
+    }
+
+    @Override
+    public boolean onQueryTextSubmit(String query) {
+        queriesRequested.incrementAndGet();
+        handler.removeCallbacks(debounce);
+        pending = false;
+        start(query);
+        return true;
+    }
+
+    /**
+     * Sets the target elements of the list and filters them by the last text, if any.
+     * <p>The target is set on a background thread, right before the next filter runs.
+     *
+     * @param target A sequence of values.
+     */
+    public void setTarget(final Iterable<T> target) {
+        if (target == null) {
+            throw new NullPointerException("target == null");
+        }
+
+        pendingTarget.set(target);
+        if (started && !pending) {
+            queriesRequested.incrementAndGet();
+            start(lastText);
+        }
+    }
+
+    private void start(final String text) {
+        final int current = generation.incrementAndGet();
+        lastText = text;
+        started = true;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<T> selection;
+                // Filters run one at a time, since the list is not thread-safe
+                synchronized (list) {
+                    final Iterable<T> target = pendingTarget.getAndSet(null);
+                    if (target != null) {
+                        list.setTarget(target);
+                    }
+                    if (current != generation.get()) {
+                        return;
+                    }
+
+                    queriesRun.incrementAndGet();
+                    try {
+                        list.setFilter(text);
+                        selection = Query.toList(list.getSelection());
+                    } catch (final RuntimeException e) {
+                        deliver(current, null, e);
+                        return;
+                    }
+                }
+
+                deliver(current, selection, null);
+            }
+        });
+    }
+
+    private void deliver(
+            final int current,
+            final List<T> selection,
+            final RuntimeException error
+    ) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (current != generation.get()) {
+                    resultsDiscarded.incrementAndGet();
+                    return;
+                }
+
+                if (error != null) {
+                    callback.onError(error);
+                } else {
+                    callback.onResult(selection);
+                }
+            }
+        });
+    }
+}
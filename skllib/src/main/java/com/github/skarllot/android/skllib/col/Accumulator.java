@@ -0,0 +1,415 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.github.skarllot.android.skllib.Func3;
+
+import java.util.Comparator;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Computes a value from the elements of a sequence, one element at a time.
+ * <p>Several accumulators can be fed from a single pass by
+ * {@link Query#aggregate(Iterable, Accumulator[])}. Accumulators can be merged, so a sequence
+ * split into ranges can be accumulated range by range and the partial results combined.
+ *
+ * @param <T> The type of elements.
+ * @param <R> The type of result.
+ */
+public abstract class Accumulator<T, R> {
+
+    /**
+     * Adds an element to this accumulator.
+     *
+     * @param item The element to add.
+     */
+    public abstract void add(T item);
+
+    /**
+     * Gets the value computed from added elements.
+     *
+     * @return The computed value.
+     */
+    public abstract R getResult();
+
+    /**
+     * Merges the state of an accumulator that was fed with the elements following the ones of
+     * this accumulator.
+     *
+     * @param other An accumulator created by {@link #newAccumulator()}.
+     */
+    public abstract void merge(Accumulator<T, R> other);
+
+    /**
+     * Creates an empty accumulator of same kind.
+     *
+     * @return A new accumulator.
+     */
+    public abstract Accumulator<T, R> newAccumulator();
+
+    /**
+     * Creates an accumulator that counts elements.
+     *
+     * @param <T> The type of elements.
+     * @return A new accumulator.
+     */
+    public static <T> Accumulator<T, Integer> count() {
+        return new CountAccumulator<>();
+    }
+
+    /**
+     * Creates an accumulator that keeps the first element.
+     *
+     * @param <T> The type of elements.
+     * @return A new accumulator, which result is null when no element was added.
+     */
+    public static <T> Accumulator<T, T> first() {
+        return new PickAccumulator<>(true);
+    }
+
+    /**
+     * Creates an accumulator that combines elements into a value.
+     * <p>The seed is used once per merged range, so it must be neutral to the combiner.
+     *
+     * @param seed     The initial value.
+     * @param func     An method to combine the current value with an element.
+     * @param combiner An method to combine the values of two consecutive ranges.
+     * @param <T>      The type of elements.
+     * @param <R>      The type of result.
+     * @return A new accumulator.
+     */
+    public static <T, R> Accumulator<T, R> fold(
+            final R seed,
+            final Func3<R, R, T> func,
+            final Func3<R, R, R> combiner
+    ) {
+        if (func == null) {
+            throw new NullPointerException("func == null");
+        }
+        if (combiner == null) {
+            throw new NullPointerException("combiner == null");
+        }
+
+        return new FoldAccumulator<>(seed, func, combiner);
+    }
+
+    /**
+     * Creates an accumulator that keeps the last element.
+     *
+     * @param <T> The type of elements.
+     * @return A new accumulator, which result is null when no element was added.
+     */
+    public static <T> Accumulator<T, T> last() {
+        return new PickAccumulator<>(false);
+    }
+
+    /**
+     * Creates an accumulator that keeps the greatest element.
+     * <p>The first of elements that compare equal is kept.
+     *
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param <T>        The type of elements.
+     * @return A new accumulator, which result is null when no element was added.
+     */
+    public static <T> Accumulator<T, T> max(final Comparator<? super T> comparator) {
+        if (comparator == null) {
+            throw new NullPointerException("comparator == null");
+        }
+
+        return new ExtremeAccumulator<>(comparator, 1);
+    }
+
+    /**
+     * Creates an accumulator that keeps the least element.
+     * <p>The first of elements that compare equal is kept.
+     *
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param <T>        The type of elements.
+     * @return A new accumulator, which result is null when no element was added.
+     */
+    public static <T> Accumulator<T, T> min(final Comparator<? super T> comparator) {
+        if (comparator == null) {
+            throw new NullPointerException("comparator == null");
+        }
+
+        return new ExtremeAccumulator<>(comparator, -1);
+    }
+
+    /**
+     * Creates an accumulator that sums a double projection of elements.
+     *
+     * @param selector An method to project each element into a double value.
+     * @param <T>      The type of elements.
+     * @return A new accumulator.
+     */
+    public static <T> Accumulator<T, Double> sum(final DoubleSelector<? super T> selector) {
+        if (selector == null) {
+            throw new NullPointerException("selector == null");
+        }
+
+        return new DoubleSumAccumulator<>(selector);
+    }
+
+    /**
+     * Creates an accumulator that sums an int projection of elements.
+     *
+     * @param selector An method to project each element into an int value.
+     * @param <T>      The type of elements.
+     * @return A new accumulator, which sum does not overflow as a long.
+     */
+    public static <T> Accumulator<T, Long> sum(final IntSelector<? super T> selector) {
+        if (selector == null) {
+            throw new NullPointerException("selector == null");
+        }
+
+        return new LongSumAccumulator<>(selector, null);
+    }
+
+    /**
+     * Creates an accumulator that sums a long projection of elements.
+     *
+     * @param selector An method to project each element into a long value.
+     * @param <T>      The type of elements.
+     * @return A new accumulator.
+     */
+    public static <T> Accumulator<T, Long> sum(final LongSelector<? super T> selector) {
+        if (selector == null) {
+            throw new NullPointerException("selector == null");
+        }
+
+        return new LongSumAccumulator<>(null, selector);
+    }
+
+    /**
+     * An accumulator that counts elements.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class CountAccumulator<T> extends Accumulator<T, Integer> {
+        int count = 0;
+
+        @Override
+        public void add(T item) {
+            count++;
+        }
+
+        @Override
+        public Integer getResult() {
+            return count;
+        }
+
+        @Override
+        public void merge(Accumulator<T, Integer> other) {
+            count += ((CountAccumulator<T>) other).count;
+        }
+
+        @Override
+        public Accumulator<T, Integer> newAccumulator() {
+            return new CountAccumulator<>();
+        }
+    }
+
+    /**
+     * An accumulator that sums a double projection of elements.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class DoubleSumAccumulator<T> extends Accumulator<T, Double> {
+        final DoubleSelector<? super T> selector;
+        double sum = 0;
+
+        DoubleSumAccumulator(DoubleSelector<? super T> selector) {
+            this.selector = selector;
+        }
+
+        @Override
+        public void add(T item) {
+            sum += selector.call(item);
+        }
+
+        @Override
+        public Double getResult() {
+            return sum;
+        }
+
+        @Override
+        public void merge(Accumulator<T, Double> other) {
+            sum += ((DoubleSumAccumulator<T>) other).sum;
+        }
+
+        @Override
+        public Accumulator<T, Double> newAccumulator() {
+            return new DoubleSumAccumulator<>(selector);
+        }
+    }
+
+    /**
+     * An accumulator that keeps the least or the greatest element.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class ExtremeAccumulator<T> extends Accumulator<T, T> {
+        final Comparator<? super T> comparator;
+        final int sign;
+        T value = null;
+        boolean found = false;
+
+        ExtremeAccumulator(Comparator<? super T> comparator, int sign) {
+            this.comparator = comparator;
+            this.sign = sign;
+        }
+
+        @Override
+        public void add(T item) {
+            if (!found) {
+                value = item;
+                found = true;
+                return;
+            }
+
+            // Compared by sign, since negating Integer.MIN_VALUE overflows
+            final int result = comparator.compare(item, value);
+            if (sign > 0 ? result > 0 : result < 0) {
+                value = item;
+            }
+        }
+
+        @Override
+        public T getResult() {
+            return value;
+        }
+
+        @Override
+        public void merge(Accumulator<T, T> other) {
+            final ExtremeAccumulator<T> o = (ExtremeAccumulator<T>) other;
+            if (o.found) {
+                add(o.value);
+            }
+        }
+
+        @Override
+        public Accumulator<T, T> newAccumulator() {
+            return new ExtremeAccumulator<>(comparator, sign);
+        }
+    }
+
+    /**
+     * An accumulator that combines elements into a value.
+     *
+     * @param <T> The type of elements.
+     * @param <R> The type of result.
+     */
+    private static final class FoldAccumulator<T, R> extends Accumulator<T, R> {
+        final R seed;
+        final Func3<R, R, T> func;
+        final Func3<R, R, R> combiner;
+        R value;
+
+        FoldAccumulator(R seed, Func3<R, R, T> func, Func3<R, R, R> combiner) {
+            this.seed = seed;
+            this.func = func;
+            this.combiner = combiner;
+            this.value = seed;
+        }
+
+        @Override
+        public void add(T item) {
+            value = func.call(value, item);
+        }
+
+        @Override
+        public R getResult() {
+            return value;
+        }
+
+        @Override
+        public void merge(Accumulator<T, R> other) {
+            value = combiner.call(value, ((FoldAccumulator<T, R>) other).value);
+        }
+
+        @Override
+        public Accumulator<T, R> newAccumulator() {
+            return new FoldAccumulator<>(seed, func, combiner);
+        }
+    }
+
+    /**
+     * An accumulator that sums an int or long projection of elements.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class LongSumAccumulator<T> extends Accumulator<T, Long> {
+        final IntSelector<? super T> intSelector;
+        final LongSelector<? super T> longSelector;
+        long sum = 0;
+
+        LongSumAccumulator(
+                IntSelector<? super T> intSelector,
+                LongSelector<? super T> longSelector
+        ) {
+            this.intSelector = intSelector;
+            this.longSelector = longSelector;
+        }
+
+        @Override
+        public void add(T item) {
+            sum += intSelector != null ? intSelector.call(item) : longSelector.call(item);
+        }
+
+        @Override
+        public Long getResult() {
+            return sum;
+        }
+
+        @Override
+        public void merge(Accumulator<T, Long> other) {
+            sum += ((LongSumAccumulator<T>) other).sum;
+        }
+
+        @Override
+        public Accumulator<T, Long> newAccumulator() {
+            return new LongSumAccumulator<>(intSelector, longSelector);
+        }
+    }
+
+    /**
+     * An accumulator that keeps the first or the last element.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class PickAccumulator<T> extends Accumulator<T, T> {
+        final boolean first;
+        T value = null;
+        boolean found = false;
+
+        PickAccumulator(boolean first) {
+            this.first = first;
+        }
+
+        @Override
+        public void add(T item) {
+            if (!first || !found) {
+                value = item;
+                found = true;
+            }
+        }
+
+        @Override
+        public T getResult() {
+            return value;
+        }
+
+        @Override
+        public void merge(Accumulator<T, T> other) {
+            final PickAccumulator<T> o = (PickAccumulator<T>) other;
+            if (o.found) {
+                add(o.value);
+            }
+        }
+
+        @Override
+        public Accumulator<T, T> newAccumulator() {
+            return new PickAccumulator<>(first);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.android.internal.util.Predicate;
+import com.github.skarllot.android.skllib.Func2;
+
+import java.util.Arrays;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Combines several conditions into one, evaluating them in the order found most effective.
+ * <p>Each condition keeps how often it decides the result and, from a sample of evaluations, how
+ * long it takes. Every {@link #REORDER_PERIOD} evaluations the conditions are sorted by cost
+ * divided by decision rate, so a cheap condition that often rejects an element runs before an
+ * expensive one. Older statistics are halved on each reordering, following changes of the data.
+ * <p>Conditions must not have side effects, since they may run in any order or not at all.
+ * Each one must also be safe to test on any element, regardless of the others: a condition
+ * such as {@code x.foo()} that is only safe once another one has checked {@code x != null} may
+ * be moved before it.
+ * Statistics are updated without synchronization; concurrent use may lose some updates, but never
+ * changes the result.
+ *
+ * @param <T> The type of elements.
+ */
+public final class AdaptivePredicate<T> implements Predicate<T> {
+    /**
+     * The number of evaluations between reorderings.
+     */
+    public static final int REORDER_PERIOD = 1024;
+    // Times one of each 16 evaluations
+    private static final int SAMPLE_MASK = 15;
+
+    private final boolean any;
+    private volatile Term<T>[] order;
+    private int calls = 0;
+
+    private AdaptivePredicate(final boolean any, final Term<T>[] terms) {
+        this.any = any;
+        this.order = terms;
+    }
+
+    /**
+     * Creates a condition met when every specified condition is met.
+     *
+     * @param predicates The methods to determine whether an element meets a condition.
+     * @param <T>        The type of elements.
+     * @return A new composite condition.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> AdaptivePredicate<T> and(final Func2<Boolean, ? super T>... predicates) {
+        return create(false, predicates);
+    }
+
+    /**
+     * Creates a condition met when every specified condition is met.
+     *
+     * @param predicates The methods to determine whether an element meets a condition.
+     * @param <T>        The type of elements.
+     * @return A new composite condition.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> AdaptivePredicate<T> and(final Predicate<? super T>... predicates) {
+        return create(false, predicates);
+    }
+
+    /**
+     * Creates a condition met when any specified condition is met.
+     *
+     * @param predicates The methods to determine whether an element meets a condition.
+     * @param <T>        The type of elements.
+     * @return A new composite condition.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> AdaptivePredicate<T> or(final Func2<Boolean, ? super T>... predicates) {
+        return create(true, predicates);
+    }
+
+    /**
+     * Creates a condition met when any specified condition is met.
+     *
+     * @param predicates The methods to determine whether an element meets a condition.
+     * @param <T>        The type of elements.
+     * @return A new composite condition.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> AdaptivePredicate<T> or(final Predicate<? super T>... predicates) {
+        return create(true, predicates);
+    }
+
+    @Override
+    public boolean apply(final T t) {
+        final Term<T>[] current = order;
+        final int call = ++calls;
+        final boolean sampled = (call & SAMPLE_MASK) == 0;
+
+        boolean result = !any;
+        for (Term<T> term : current) {
+            final boolean value;
+            if (sampled) {
+                final long start = System.nanoTime();
+                value = term.test(t);
+                term.nanos += System.nanoTime() - start;
+                term.samples++;
+            } else {
+                value = term.test(t);
+            }
+
+            term.evaluations++;
+            if (value == any) {
+                term.decisions++;
+                result = any;
+                break;
+            }
+        }
+
+        if ((call & (REORDER_PERIOD - 1)) == 0) {
+            reorder(current);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the order which conditions are currently evaluated.
+     *
+     * @return The positions of conditions, as specified on creation, in evaluation order.
+     */
+    public int[] getOrder() {
+        final Term<T>[] current = order;
+        final int[] result = new int[current.length];
+        for (int i = 0; i < current.length; i++) {
+            result[i] = current[i].position;
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return (any ? "Or " : "And ") + Arrays.toString(getOrder());
+    }
+
+    // Sorts conditions by scores rated into a local array, since other threads may be rating
+    // the same terms concurrently
+    private void reorder(final Term<T>[] current) {
+        final Term<T>[] result = Arrays.copyOf(current, current.length);
+        final double[] scores = new double[result.length];
+        for (int i = 0; i < result.length; i++) {
+            final Term<T> term = result[i];
+            final double score = term.rate();
+
+            // Insertion sort, which is stable and fast for the few conditions combined
+            int j = i;
+            while (j > 0 && scores[j - 1] > score) {
+                scores[j] = scores[j - 1];
+                result[j] = result[j - 1];
+                j--;
+            }
+            scores[j] = score;
+            result[j] = term;
+        }
+
+        order = result;
+    }
+
+    // Only reads predicates, which is why factories can pass their varargs array safely
+    @SuppressWarnings("unchecked")
+    private static <T> AdaptivePredicate<T> create(final boolean any, final Object[] predicates) {
+        if (predicates == null) {
+            throw new NullPointerException("predicates == null");
+        }
+
+        final Term<T>[] terms = (Term<T>[]) new Term<?>[predicates.length];
+        for (int i = 0; i < predicates.length; i++) {
+            if (predicates[i] == null) {
+                throw new NullPointerException("predicate == null");
+            }
+            terms[i] = new Term<>(i, predicates[i]);
+        }
+
+        return new AdaptivePredicate<>(any, terms);
+    }
+
+    /**
+     * Holds a condition together with its runtime statistics.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class Term<T> {
+        final int position;
+        // Either a Func2 or a Predicate
+        final Object predicate;
+        long evaluations = 0;
+        long decisions = 0;
+        long samples = 0;
+        long nanos = 0;
+
+        Term(int position, Object predicate) {
+            this.position = position;
+            this.predicate = predicate;
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean test(T t) {
+            if (predicate instanceof Predicate) {
+                return ((Predicate<? super T>) predicate).apply(t);
+            }
+
+            return ((Func2<Boolean, ? super T>) predicate).call(t);
+        }
+
+        // Computes the expected cost of deciding the result and halves statistics
+        double rate() {
+            final double rate = (decisions + 1.0) / (evaluations + 2.0);
+            final double cost = samples == 0 ? 1.0 : Math.max(1.0, (double) nanos / samples);
+
+            evaluations >>= 1;
+            decisions >>= 1;
+            samples >>= 1;
+            nanos >>= 1;
+            return cost / rate;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.skarllot.android.skllib.col;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * An Iterable type that groups consecutive elements of a source into lists.
+ * <p>Elements are kept into a ring buffer of the batch size, so only one batch is held in memory
+ * at a time. Each batch is either copied into a new list or exposed through a single reused
+ * read-only view, which is only valid until the iterator moves to the next batch.
+ *
+ * @param <T> The type of elements.
+ */
+final class BatchIterable<T> implements Iterable<List<T>> {
+    private final Iterable<T> source;
+    private final int size;
+    private final int step;
+    private final boolean reuse;
+    private final boolean partial;
+
+    /**
+     * Creates a new instance of BatchIterable.
+     *
+     * @param source  An object that provides a sequence of values.
+     * @param size    The number of elements of each batch.
+     * @param step    The number of elements between the starts of two batches.
+     * @param reuse   Whether every batch is returned through the same view.
+     * @param partial Whether a last batch smaller than size is returned.
+     */
+    BatchIterable(
+            final Iterable<T> source,
+            final int size,
+            final int step,
+            final boolean reuse,
+            final boolean partial
+    ) {
+        this.source = source;
+        this.size = size;
+        this.step = step;
+        this.reuse = reuse;
+        this.partial = partial;
+    }
+
+    @Override
+    public Iterator<List<T>> iterator() {
+        return new BatchIterator<>(source.iterator(), size, step, reuse, partial);
+    }
+
+    /**
+     * An iterator for batch loops.
+     *
+     * @param <T> The type of elements
+     */
+    private static final class BatchIterator<T> implements Iterator<List<T>> {
+        final Iterator<T> iterator;
+        final int step;
+        final boolean reuse;
+        final boolean partial;
+        final Object[] ring;
+        final RingView<T> view;
+        int start = 0;
+        int count = 0;
+        boolean started = false;
+        boolean hasNextItem = false;
+
+        BatchIterator(Iterator<T> iterator, int size, int step, boolean reuse, boolean partial) {
+            this.iterator = iterator;
+            this.step = step;
+            this.reuse = reuse;
+            this.partial = partial;
+            this.ring = new Object[size];
+            this.view = new RingView<>(this);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNextItem)
+                return true;
+
+            if (started) {
+                drop();
+            }
+            started = true;
+
+            final int before = count;
+            while (count < ring.length && iterator.hasNext()) {
+                ring[(start + count++) % ring.length] = iterator.next();
+            }
+
+            hasNextItem = count == ring.length || (partial && count > before);
+            return hasNextItem;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<T> next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            hasNextItem = false;
+            if (reuse) {
+                return view;
+            }
+
+            final List<T> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                batch.add((T) ring[(start + i) % ring.length]);
+            }
+            return batch;
+        }
+
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException();
+        }
+
+        // Moves past the elements of previous batch that do not belong to the next one
+        private void drop() {
+            final int dropped = Math.min(step, count);
+            for (int i = 0; i < dropped; i++) {
+                ring[(start + i) % ring.length] = null;
+            }
+            start = (start + dropped) % ring.length;
+            count -= dropped;
+
+            for (int i = dropped; i < step && iterator.hasNext(); i++) {
+                iterator.next();
+            }
+        }
+    }
+
+    /**
+     * A read-only list over the current batch of an iterator.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class RingView<T> extends AbstractList<T> implements RandomAccess {
+        final BatchIterator<T> owner;
+
+        RingView(BatchIterator<T> owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int location) {
+            if (location < 0 || location >= owner.count) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            return (T) owner.ring[(owner.start + location) % owner.ring.length];
+        }
+
+        @Override
+        public int size() {
+            return owner.count;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.skarllot.android.skllib.col;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * A compact probabilistic membership filter over hash codes.
+ * <p>A negative answer is always right, while a positive answer may be wrong at about 1% rate.
+ * It fits into far less memory than a hash table, so misses are answered without touching the
+ * table itself.
+ */
+final class BloomFilter {
+    private static final int BITS_PER_ELEMENT = 10;
+    private static final int HASHES = 7;
+
+    private final long[] bits;
+    private final int mask;
+
+    /**
+     * Creates a new instance of BloomFilter.
+     *
+     * @param expectedSize The number of elements expected to be added.
+     */
+    BloomFilter(final int expectedSize) {
+        final long wanted = Math.max(64L, (long) expectedSize * BITS_PER_ELEMENT);
+        int size = 64;
+        while (size < wanted && size < 1 << 30) {
+            size <<= 1;
+        }
+
+        this.bits = new long[size >>> 6];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element hash code to this filter.
+     *
+     * @param hash The hash code of the element.
+     */
+    void add(final int hash) {
+        final int h2 = mix(hash);
+        for (int i = 0; i < HASHES; i++) {
+            final int bit = (hash + i * h2) & mask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Determines whether an element hash code may have been added to this filter.
+     *
+     * @param hash The hash code of the element.
+     * @return False whether the element was surely not added; otherwise, true.
+     */
+    boolean mightContain(final int hash) {
+        final int h2 = mix(hash);
+        for (int i = 0; i < HASHES; i++) {
+            final int bit = (hash + i * h2) & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h | 1;
+    }
+}
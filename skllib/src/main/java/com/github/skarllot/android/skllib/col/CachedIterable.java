@@ -0,0 +1,167 @@
+package com.github.skarllot.android.skllib.col;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * An Iterable type that memoizes elements of a source as they are first read.
+ * <p>A single source iterator is shared by every iterator of this instance, including iterators
+ * running on other threads, so the source is read once. When a capacity is set and the source
+ * has more elements than that, only the leading elements are kept: the iterator that goes past
+ * them keeps reading the shared source iterator, and any other one re-reads the source skipping
+ * the kept elements.
+ *
+ * @param <T> The type of elements.
+ */
+final class CachedIterable<T> implements Iterable<T> {
+    private static final int AVAILABLE = 0;
+    private static final int END = 1;
+    private static final int OVERFLOW = 2;
+
+    private final Iterable<T> source;
+    private final int capacity;
+    private final List<T> items = new ArrayList<>();
+    private Iterator<T> upstream = null;
+    private boolean complete = false;
+    private boolean overflowed = false;
+
+    /**
+     * Creates a new instance of CachedIterable.
+     *
+     * @param source   An object that provides a sequence of values.
+     * @param capacity The maximum number of elements to keep, or a negative number to keep all.
+     */
+    CachedIterable(final Iterable<T> source, final int capacity) {
+        this.source = source;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new CacheIterator<>(this);
+    }
+
+    /**
+     * Returns the number of elements when the source was completely read.
+     *
+     * @return The number of elements if known; otherwise, -1.
+     */
+    synchronized int knownSize() {
+        return complete ? items.size() : -1;
+    }
+
+    /**
+     * Makes the element at specified position available, reading the source when needed.
+     *
+     * @param index The position of the element.
+     * @return Whether the element is available, the sequence ended or the capacity was exceeded.
+     */
+    private synchronized int fetch(final int index) {
+        if (index < items.size()) {
+            return AVAILABLE;
+        }
+        if (complete) {
+            return END;
+        }
+        if (overflowed) {
+            return OVERFLOW;
+        }
+
+        if (upstream == null) {
+            upstream = source.iterator();
+        }
+        if (!upstream.hasNext()) {
+            complete = true;
+            upstream = null;
+            return END;
+        }
+        if (capacity >= 0 && items.size() >= capacity) {
+            overflowed = true;
+            return OVERFLOW;
+        }
+
+        items.add(upstream.next());
+        return AVAILABLE;
+    }
+
+    private synchronized T get(final int index) {
+        return items.get(index);
+    }
+
+    /**
+     * Gets an iterator positioned right after the kept elements.
+     *
+     * @return The shared source iterator for the first caller; otherwise, a new source iterator.
+     * @throws IllegalStateException When the source cannot be read again.
+     */
+    private synchronized Iterator<T> overflowIterator() throws IllegalStateException {
+        if (upstream != null) {
+            final Iterator<T> iterator = upstream;
+            upstream = null;
+            return iterator;
+        }
+
+        final Iterator<T> iterator = source.iterator();
+        if (iterator == null) {
+            throw new IllegalStateException("source can only be read once");
+        }
+        for (int i = 0; i < capacity && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        return iterator;
+    }
+
+    /**
+     * An iterator over memoized elements.
+     *
+     * @param <T> The type of elements
+     */
+    private static final class CacheIterator<T> implements Iterator<T> {
+        final CachedIterable<T> cache;
+        Iterator<T> overflow = null;
+        int index = 0;
+
+        CacheIterator(CachedIterable<T> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (overflow != null) {
+                return overflow.hasNext();
+            }
+
+            switch (cache.fetch(index)) {
+                case AVAILABLE:
+                    return true;
+                case OVERFLOW:
+                    overflow = cache.overflowIterator();
+                    return overflow.hasNext();
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        public T next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (overflow != null) {
+                return overflow.next();
+            }
+
+            return cache.get(index++);
+        }
+
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.skarllot.android.skllib.col;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides a function that projects an element into a double value without boxing.
+ *
+ * @param <T> The type of parameter.
+ */
+public interface DoubleSelector<T> {
+    double call(T t);
+}
@@ -0,0 +1,29 @@
+package com.github.skarllot.android.skllib.col;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Defines methods to support the comparison of objects for equality.
+ *
+ * @param <T> The type of objects to compare.
+ */
+public interface EqualityComparer<T> {
+    /**
+     * Determines whether the specified objects are equal.
+     *
+     * @param x The first object to compare.
+     * @param y The second object to compare.
+     * @return True whether the specified objects are equal; otherwise, false.
+     */
+    boolean equals(T x, T y);
+
+    /**
+     * Returns a hash code for the specified object.
+     * <p>Objects considered equal must return the same hash code.
+     *
+     * @param t The object for which a hash code is to be returned.
+     * @return A hash code for the specified object.
+     */
+    int getHashCode(T t);
+}
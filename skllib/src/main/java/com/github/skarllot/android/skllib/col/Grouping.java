@@ -0,0 +1,100 @@
+package com.github.skarllot.android.skllib.col;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Represents a collection of elements that have a common key.
+ *
+ * @param <K> The type of key.
+ * @param <T> The type of elements.
+ */
+public class Grouping<K, T> extends QueryIterable<T> {
+    private final HashIndex<K, T> index;
+    private final int group;
+
+    Grouping(final HashIndex<K, T> index, final int group) {
+        super(new GroupIterable<>(index, group));
+        this.index = index;
+        this.group = group;
+    }
+
+    /**
+     * Returns the number of elements found.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public int count() {
+        return index.size(group);
+    }
+
+    /**
+     * Gets the key shared by elements of this group.
+     *
+     * @return The group key.
+     */
+    public K getKey() {
+        return index.key(group);
+    }
+
+    /**
+     * An Iterable type for elements of a group.
+     *
+     * @param <K> The type of key.
+     * @param <T> The type of elements.
+     */
+    private static class GroupIterable<K, T> implements Iterable<T> {
+        final HashIndex<K, T> index;
+        final int group;
+
+        public GroupIterable(HashIndex<K, T> index, int group) {
+            this.index = index;
+            this.group = group;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new GroupIterator<>(index, index.first(group));
+        }
+    }
+
+    /**
+     * An iterator for elements of a group.
+     *
+     * @param <T> The type of elements
+     */
+    private static class GroupIterator<T> implements Iterator<T> {
+        final HashIndex<?, T> index;
+        int entry;
+
+        public GroupIterator(HashIndex<?, T> index, int entry) {
+            this.index = index;
+            this.entry = entry;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entry >= 0;
+        }
+
+        @Override
+        public T next() throws NoSuchElementException {
+            if (entry < 0) {
+                throw new NoSuchElementException();
+            }
+
+            final T item = index.value(entry);
+            entry = index.next(entry);
+            return item;
+        }
+
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.github.skarllot.android.skllib.Func2;
+
+import java.util.Arrays;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * A hash table that groups elements by key.
+ * <p>Groups and their elements are kept into flat arrays linked by position, so no entry object
+ * is allocated per element. Groups keep the order their keys were first found, and elements keep
+ * their order into each group.
+ *
+ * @param <K> The type of keys.
+ * @param <T> The type of elements.
+ */
+final class HashIndex<K, T> {
+    private static final Object NULL_KEY = new Object();
+
+    // Maps hash slots to group numbers plus one; zero marks an empty slot
+    private int[] table;
+
+    private Object[] groupKeys;
+    private int[] groupHead;
+    private int[] groupTail;
+    private int[] groupSize;
+    private int groups = 0;
+
+    private Object[] values;
+    private int[] next;
+    private int size = 0;
+
+    HashIndex(final int expectedSize) {
+        final int capacity = Math.max(expectedSize, 8);
+
+        table = new int[tableSizeFor(capacity)];
+        groupKeys = new Object[capacity];
+        groupHead = new int[capacity];
+        groupTail = new int[capacity];
+        groupSize = new int[capacity];
+        values = new Object[capacity];
+        next = new int[capacity];
+    }
+
+    /**
+     * Creates a new HashIndex filled with elements from specified sequence.
+     *
+     * @param input        An object that provides a sequence of values.
+     * @param keySelector  An method to extract the key of each element.
+     * @param skipNullKeys Whether elements with null keys are left out of the index.
+     * @param <K>          The type of keys.
+     * @param <T>          The type of elements.
+     * @return A new HashIndex instance.
+     */
+    static <K, T> HashIndex<K, T> build(
+            final Iterable<T> input,
+            final Func2<K, T> keySelector,
+            final boolean skipNullKeys
+    ) {
+        final HashIndex<K, T> index = new HashIndex<>(Query.knownSize(input));
+        for (T item : input) {
+            final K key = keySelector.call(item);
+            if (key != null || !skipNullKeys) {
+                index.add(key, item);
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Adds an element to the group of specified key.
+     *
+     * @param key  The key of element.
+     * @param item The element to add.
+     */
+    void add(final K key, final T item) {
+        int group = find(key);
+        if (group < 0) {
+            group = addGroup(key);
+        }
+
+        if (size == values.length) {
+            final int capacity = values.length << 1;
+            values = Arrays.copyOf(values, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+
+        final int entry = size++;
+        values[entry] = item;
+        next[entry] = -1;
+
+        if (groupSize[group] == 0) {
+            groupHead[group] = entry;
+        } else {
+            next[groupTail[group]] = entry;
+        }
+        groupTail[group] = entry;
+        groupSize[group]++;
+    }
+
+    /**
+     * Finds the group of specified key.
+     *
+     * @param key The key to look for.
+     * @return The group number if found; otherwise, -1.
+     */
+    @SuppressWarnings("unchecked")
+    int find(final K key) {
+        final Object k = key == null ? NULL_KEY : key;
+        final int[] tab = table;
+        final int mask = tab.length - 1;
+
+        int i = hash(k) & mask;
+        int slot;
+        while ((slot = tab[i]) != 0) {
+            final Object current = groupKeys[slot - 1];
+            if (current == k || current.equals(k)) {
+                return slot - 1;
+            }
+            i = (i + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the first entry of a group.
+     *
+     * @param group The group number.
+     * @return The entry position.
+     */
+    int first(final int group) {
+        return groupHead[group];
+    }
+
+    /**
+     * Returns the number of groups.
+     *
+     * @return The number of groups.
+     */
+    int groupCount() {
+        return groups;
+    }
+
+    /**
+     * Returns the key of a group.
+     *
+     * @param group The group number.
+     * @return The group key.
+     */
+    @SuppressWarnings("unchecked")
+    K key(final int group) {
+        final Object key = groupKeys[group];
+        return key == NULL_KEY ? null : (K) key;
+    }
+
+    /**
+     * Returns the entry that follows specified entry into its group.
+     *
+     * @param entry The entry position.
+     * @return The next entry position if any; otherwise, -1.
+     */
+    int next(final int entry) {
+        return next[entry];
+    }
+
+    /**
+     * Returns the number of elements into a group.
+     *
+     * @param group The group number.
+     * @return The number of elements.
+     */
+    int size(final int group) {
+        return groupSize[group];
+    }
+
+    /**
+     * Returns the number of elements into this index.
+     *
+     * @return The number of elements.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the element of an entry.
+     *
+     * @param entry The entry position.
+     * @return The element.
+     */
+    @SuppressWarnings("unchecked")
+    T value(final int entry) {
+        return (T) values[entry];
+    }
+
+    private int addGroup(final K key) {
+        if (groups == groupKeys.length) {
+            final int capacity = groups << 1;
+            groupKeys = Arrays.copyOf(groupKeys, capacity);
+            groupHead = Arrays.copyOf(groupHead, capacity);
+            groupTail = Arrays.copyOf(groupTail, capacity);
+            groupSize = Arrays.copyOf(groupSize, capacity);
+        }
+
+        final int group = groups++;
+        groupKeys[group] = key == null ? NULL_KEY : key;
+        groupSize[group] = 0;
+
+        if (groups > table.length >> 1) {
+            rehash(table.length << 1);
+        } else {
+            insert(table, group);
+        }
+        return group;
+    }
+
+    private void insert(final int[] tab, final int group) {
+        final int mask = tab.length - 1;
+
+        int i = hash(groupKeys[group]) & mask;
+        while (tab[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        tab[i] = group + 1;
+    }
+
+    private void rehash(final int capacity) {
+        final int[] tab = new int[capacity];
+        for (int group = 0; group < groups; group++) {
+            insert(tab, group);
+        }
+
+        table = tab;
+    }
+
+    private static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(final int expectedGroups) {
+        int capacity = 16;
+        while (capacity >> 1 < expectedGroups && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.skarllot.android.skllib.col;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Represents an object that allows searching through an index of its text.
+ * <p>The {@link #match(String)} method may only return true when filter text is found into index
+ * text, both normalized by {@link SearchableUtil#normalize(String)}, so that a
+ * {@link SearchIndex} never leaves out a matching element.
+ */
+public interface IndexableSearchable extends Searchable {
+    /**
+     * Gets the text which filters are looked up into, as every searchable field joined.
+     *
+     * @return A text to index, which must not change while indexed.
+     */
+    String getIndexText();
+}
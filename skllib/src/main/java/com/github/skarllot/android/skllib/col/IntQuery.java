@@ -0,0 +1,238 @@
+package com.github.skarllot.android.skllib.col;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides a sequence of int values that queries can be chained without boxing.
+ * <p>Values are projected from a pipeline and filtered into a single loop when a terminal
+ * operation is called.
+ *
+ * @param <T> The type of source elements.
+ */
+public final class IntQuery<T> {
+    private static final IntPredicate[] NO_FILTERS = new IntPredicate[0];
+    private static final Sink IGNORE = new Sink() {
+        @Override
+        public void accept(final int value) {
+            // Counting is done by forEach itself
+        }
+    };
+
+    final Pipeline<T> pipeline;
+    final IntSelector<T> selector;
+    final IntPredicate[] filters;
+
+    IntQuery(final Pipeline<T> pipeline, final IntSelector<T> selector) {
+        this(pipeline, selector, NO_FILTERS);
+    }
+
+    private IntQuery(
+            final Pipeline<T> pipeline,
+            final IntSelector<T> selector,
+            final IntPredicate[] filters
+    ) {
+        this.pipeline = pipeline;
+        this.selector = selector;
+        this.filters = filters;
+    }
+
+    /**
+     * Computes the average of the values.
+     *
+     * @return The average of the values.
+     * @throws NoSuchElementException When there are no values.
+     */
+    public double average() {
+        final Total total = new Total();
+        final int counter = forEach(total);
+        if (counter == 0) {
+            throw new NoSuchElementException();
+        }
+        return (double) total.sum / counter;
+    }
+
+    /**
+     * Returns the number of values found.
+     *
+     * @return The number of values.
+     */
+    public int count() {
+        if (filters.length == 0) {
+            final int size = pipeline.knownSize();
+            if (size >= 0) {
+                return size;
+            }
+        }
+
+        return forEach(IGNORE);
+    }
+
+    /**
+     * Returns the maximum value.
+     *
+     * @return The maximum value.
+     * @throws NoSuchElementException When there are no values.
+     */
+    public int max() {
+        final Extreme max = new Extreme(true);
+        if (forEach(max) == 0) {
+            throw new NoSuchElementException();
+        }
+        return max.value;
+    }
+
+    /**
+     * Returns the minimum value.
+     *
+     * @return The minimum value.
+     * @throws NoSuchElementException When there are no values.
+     */
+    public int min() {
+        final Extreme min = new Extreme(false);
+        if (forEach(min) == 0) {
+            throw new NoSuchElementException();
+        }
+        return min.value;
+    }
+
+    /**
+     * Computes the sum of the values.
+     *
+     * @return The sum of the values, or zero when there are no values.
+     */
+    public long sum() {
+        final Total total = new Total();
+        forEach(total);
+        return total.sum;
+    }
+
+    /**
+     * Returns an array from the values.
+     *
+     * @return An array from found values.
+     */
+    public int[] toArray() {
+        final Buffer buffer = new Buffer();
+        forEach(buffer);
+        return buffer.toArray();
+    }
+
+    /**
+     * Filters the values.
+     *
+     * @param predicate An method to determine whether a value meets a condition.
+     * @return A query that returns filtered values.
+     */
+    public IntQuery<T> where(final IntPredicate predicate) {
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        final IntPredicate[] result = new IntPredicate[filters.length + 1];
+        System.arraycopy(filters, 0, result, 0, filters.length);
+        result[filters.length] = predicate;
+
+        return new IntQuery<>(pipeline, selector, result);
+    }
+
+    private boolean accept(final int value) {
+        final IntPredicate[] filters = this.filters;
+        for (int i = 0; i < filters.length; i++) {
+            if (!filters[i].apply(value)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int project(final Object value) {
+        return selector.call((T) value);
+    }
+
+    /**
+     * Runs the pipeline once and hands every value that meets the filters to the sink.
+     *
+     * @param sink The consumer of found values.
+     * @return The number of values handed to the sink.
+     */
+    private int forEach(final Sink sink) {
+        final Pipeline.Run run = pipeline.newRun();
+        final Iterator<?> iterator = pipeline.source().iterator();
+        int counter = 0;
+        while (!run.done && iterator.hasNext()) {
+            final Object value = run.apply(iterator.next());
+            if (value == Pipeline.SKIP) {
+                continue;
+            }
+
+            final int v = project(value);
+            if (accept(v)) {
+                sink.accept(v);
+                counter++;
+            }
+        }
+
+        return counter;
+    }
+
+    private interface Sink {
+        void accept(int value);
+    }
+
+    private static final class Total implements Sink {
+        long sum;
+
+        @Override
+        public void accept(final int value) {
+            sum += value;
+        }
+    }
+
+    private static final class Extreme implements Sink {
+        private final boolean max;
+        private boolean found;
+        int value;
+
+        Extreme(final boolean max) {
+            this.max = max;
+        }
+
+        @Override
+        public void accept(final int value) {
+            if (!found || (max ? value > this.value : value < this.value)) {
+                this.value = value;
+                found = true;
+            }
+        }
+    }
+
+    private static final class Buffer implements Sink {
+        private int[] values = new int[16];
+        private int size;
+
+        @Override
+        public void accept(final int value) {
+            if (size == values.length) {
+                final int[] grown = new int[size << 1];
+                System.arraycopy(values, 0, grown, 0, size);
+                values = grown;
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            if (size == values.length) {
+                return values;
+            }
+            final int[] trimmed = new int[size];
+            System.arraycopy(values, 0, trimmed, 0, size);
+            return trimmed;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.skarllot.android.skllib.col;
+
+import android.support.annotation.Nullable;
+
+import java.util.Collections;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides elements of a sequence looked up by key in constant time.
+ * <p>The hash index is built once, when the KeyIndex is created, so later lookups do not read the
+ * sequence again. Changes to the sequence after that are not seen.
+ *
+ * @param <K> The type of keys.
+ * @param <T> The type of elements.
+ */
+public class KeyIndex<K, T> {
+    private final HashIndex<K, T> index;
+
+    KeyIndex(final HashIndex<K, T> index) {
+        this.index = index;
+    }
+
+    /**
+     * Determines whether any element has specified key.
+     *
+     * @param key The key to look for.
+     * @return True whether an element was found; otherwise, false.
+     */
+    public boolean containsKey(@Nullable final K key) {
+        return index.find(key) >= 0;
+    }
+
+    /**
+     * Returns the number of elements that have specified key.
+     *
+     * @param key The key to look for.
+     * @return The number of elements.
+     */
+    public int count(@Nullable final K key) {
+        final int group = index.find(key);
+        return group < 0 ? 0 : index.size(group);
+    }
+
+    /**
+     * Returns the first element that has specified key.
+     *
+     * @param key The key to look for.
+     * @return The first element if found; otherwise, null.
+     */
+    @Nullable
+    public T firstOrNull(@Nullable final K key) {
+        final int group = index.find(key);
+        return group < 0 ? null : index.value(index.first(group));
+    }
+
+    /**
+     * Returns every element that has specified key.
+     *
+     * @param key The key to look for.
+     * @return An iterable object that returns matching elements in sequence order.
+     */
+    public QueryIterable<T> get(@Nullable final K key) {
+        final int group = index.find(key);
+        if (group < 0) {
+            return new QueryIterable<>(Collections.<T>emptyList());
+        }
+
+        return new Grouping<>(index, group);
+    }
+
+    /**
+     * Returns the number of distinct keys.
+     *
+     * @return The number of keys.
+     */
+    public int keyCount() {
+        return index.groupCount();
+    }
+
+    /**
+     * Returns the number of indexed elements.
+     *
+     * @return The number of elements.
+     */
+    public int size() {
+        return index.size();
+    }
+}
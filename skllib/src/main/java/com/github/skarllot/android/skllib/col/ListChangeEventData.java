@@ -0,0 +1,71 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.github.skarllot.android.skllib.EventData;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Represents a event data for changes of a list.
+ *
+ * @param <T> The type of elements.
+ */
+public class ListChangeEventData<T> extends EventData {
+    /**
+     * Defines the kinds of list changes.
+     */
+    public enum Action {
+        Insert,
+        Remove,
+        Update,
+        Reset
+    }
+
+    private final Action action;
+    private final int position;
+    private final T item;
+    private final T oldItem;
+
+    public ListChangeEventData(Action action, int position, T item, T oldItem) {
+        this.action = action;
+        this.position = position;
+        this.item = item;
+        this.oldItem = oldItem;
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return The change kind.
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Gets the position of changed element.
+     *
+     * @return The element position, or -1 for {@link Action#Reset}.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets the element inserted or updated.
+     *
+     * @return The current element, or null for removals and resets.
+     */
+    public T getItem() {
+        return item;
+    }
+
+    /**
+     * Gets the element removed or replaced.
+     *
+     * @return The previous element, or null for insertions and resets.
+     */
+    public T getOldItem() {
+        return oldItem;
+    }
+}
@@ -0,0 +1,208 @@
+package com.github.skarllot.android.skllib.col;
+
+import android.support.annotation.Nullable;
+
+import com.github.skarllot.android.skllib.Disposable;
+import com.github.skarllot.android.skllib.EventHandler;
+import com.github.skarllot.android.skllib.EventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides the materialized result of a query over an {@link ObservableList}, kept up to date as
+ * the list changes.
+ * <p>Each single-element change of the list runs the where and select stages over the changed
+ * element only, and is notified as a change of the result. Updates that keep an element matching
+ * or not matching take constant time; insertions and removals shift positions like a list does.
+ * List resets run the whole query again.
+ * <p>This class is not thread-safe; the list must be changed from a single thread.
+ *
+ * @param <T> The type of elements
+ */
+public class LiveQueryIterable<T> extends QueryIterable<T> implements Disposable {
+    private final ObservableList<Object> source;
+    private final Pipeline<T> pipeline;
+    private final List<T> results;
+    private final EventHandler<ListChangeEventData<T>> changeEvent = new EventHandler<>();
+    private final EventListener<ListChangeEventData<Object>> sourceListener;
+
+    // Maps each source position to its result position, or to the bitwise complement of the
+    // result position it would be inserted at when the element does not match
+    private int[] slots = new int[0];
+
+    @SuppressWarnings("unchecked")
+    LiveQueryIterable(final Pipeline<T> pipeline) {
+        this(pipeline, new ArrayList<T>(), (ObservableList<Object>) pipeline.source);
+    }
+
+    private LiveQueryIterable(
+            final Pipeline<T> pipeline,
+            final List<T> results,
+            final ObservableList<Object> source
+    ) {
+        super(Collections.unmodifiableList(results));
+        this.pipeline = pipeline;
+        this.results = results;
+        this.source = source;
+        this.sourceListener = new EventListener<ListChangeEventData<Object>>() {
+            @Override
+            public void onTrigger(Object sender, ListChangeEventData<Object> data) {
+                onSourceChange(data);
+            }
+        };
+
+        rebuild();
+        source.addListener(sourceListener);
+    }
+
+    /**
+     * Returns the number of elements found.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public int count() {
+        return results.size();
+    }
+
+    /**
+     * Stops following changes of the source list.
+     */
+    @Override
+    public void dispose() {
+        source.removeListener(sourceListener);
+    }
+
+    /**
+     * Registers a listener for changes of the result, which positions refer to result elements.
+     *
+     * @param listener The listener.
+     */
+    public void setChangeListener(@Nullable EventListener<ListChangeEventData<T>> listener) {
+        changeEvent.setListener(listener);
+    }
+
+    private void onSourceChange(final ListChangeEventData<Object> data) {
+        switch (data.getAction()) {
+            case Insert:
+                insert(data.getPosition(), data.getItem());
+                break;
+            case Remove:
+                remove(data.getPosition());
+                break;
+            case Update:
+                update(data.getPosition(), data.getItem());
+                break;
+            default:
+                rebuild();
+                trigger(ListChangeEventData.Action.Reset, -1, null, null);
+                break;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void insert(final int position, final Object item) {
+        final int size = source.size();
+        if (slots.length < size) {
+            slots = Arrays.copyOf(slots, Math.max(size, slots.length << 1));
+        }
+        System.arraycopy(slots, position, slots, position + 1, size - 1 - position);
+
+        final int target = target(position);
+        final Object value = pipeline.apply(item);
+        if (value == Pipeline.SKIP) {
+            slots[position] = ~target;
+            return;
+        }
+
+        slots[position] = target;
+        shift(position + 1, 1);
+        results.add(target, (T) value);
+        trigger(ListChangeEventData.Action.Insert, target, (T) value, null);
+    }
+
+    private void remove(final int position) {
+        final int slot = slots[position];
+        System.arraycopy(slots, position + 1, slots, position, source.size() - position);
+        if (slot < 0) {
+            return;
+        }
+
+        shift(position, -1);
+        final T old = results.remove(slot);
+        trigger(ListChangeEventData.Action.Remove, slot, null, old);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void update(final int position, final Object item) {
+        final int slot = slots[position];
+        final Object value = pipeline.apply(item);
+        if (slot >= 0) {
+            if (value != Pipeline.SKIP) {
+                final T old = results.set(slot, (T) value);
+                trigger(ListChangeEventData.Action.Update, slot, (T) value, old);
+            } else {
+                slots[position] = ~slot;
+                shift(position + 1, -1);
+                final T old = results.remove(slot);
+                trigger(ListChangeEventData.Action.Remove, slot, null, old);
+            }
+        } else if (value != Pipeline.SKIP) {
+            final int target = ~slot;
+            slots[position] = target;
+            shift(position + 1, 1);
+            results.add(target, (T) value);
+            trigger(ListChangeEventData.Action.Insert, target, (T) value, null);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuild() {
+        final int size = source.size();
+        slots = new int[Math.max(size, 8)];
+        results.clear();
+
+        for (int i = 0; i < size; i++) {
+            final Object value = pipeline.apply(source.get(i));
+            if (value == Pipeline.SKIP) {
+                slots[i] = ~results.size();
+            } else {
+                slots[i] = results.size();
+                results.add((T) value);
+            }
+        }
+    }
+
+    // Moves the result positions of source elements from specified position on
+    private void shift(final int from, final int delta) {
+        final int size = source.size();
+        for (int i = from; i < size; i++) {
+            slots[i] = slots[i] >= 0 ? slots[i] + delta : slots[i] - delta;
+        }
+    }
+
+    // Gets the result position for an element inserted at specified source position
+    private int target(final int position) {
+        if (position + 1 < source.size()) {
+            final int next = slots[position + 1];
+            return next >= 0 ? next : ~next;
+        }
+
+        return results.size();
+    }
+
+    private void trigger(
+            final ListChangeEventData.Action action,
+            final int position,
+            final T item,
+            final T oldItem
+    ) {
+        changeEvent.trigger(this, new ListChangeEventData<>(action, position, item, oldItem));
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.skarllot.android.skllib.col;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * A LongPredicate can determine whether a long value meets a condition without boxing.
+ */
+public interface LongPredicate {
+    /**
+     * Determines whether a value meets a condition.
+     *
+     * @param value The value to test.
+     * @return True whether value meets the condition; otherwise, false.
+     */
+    boolean apply(long value);
+}
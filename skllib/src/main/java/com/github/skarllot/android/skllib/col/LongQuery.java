@@ -0,0 +1,254 @@
+package com.github.skarllot.android.skllib.col;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides a sequence of long values that queries can be chained without boxing.
+ * <p>Values are projected from a pipeline and filtered into a single loop when a terminal
+ * operation is called.
+ *
+ * @param <T> The type of source elements.
+ */
+public final class LongQuery<T> {
+    private static final LongPredicate[] NO_FILTERS = new LongPredicate[0];
+    private static final Sink IGNORE = new Sink() {
+        @Override
+        public void accept(final long value) {
+            // Counting is done by forEach itself
+        }
+    };
+
+    final Pipeline<T> pipeline;
+    final LongSelector<T> selector;
+    final LongPredicate[] filters;
+
+    LongQuery(final Pipeline<T> pipeline, final LongSelector<T> selector) {
+        this(pipeline, selector, NO_FILTERS);
+    }
+
+    private LongQuery(
+            final Pipeline<T> pipeline,
+            final LongSelector<T> selector,
+            final LongPredicate[] filters
+    ) {
+        this.pipeline = pipeline;
+        this.selector = selector;
+        this.filters = filters;
+    }
+
+    /**
+     * Computes the average of the values.
+     * <p>Values are summed as double, so large values cannot overflow the sum.
+     *
+     * @return The average of the values.
+     * @throws NoSuchElementException When there are no values.
+     */
+    public double average() {
+        final Total total = new Total();
+        final int counter = forEach(total);
+        if (counter == 0) {
+            throw new NoSuchElementException();
+        }
+        return total.sum / counter;
+    }
+
+    /**
+     * Returns the number of values found.
+     *
+     * @return The number of values.
+     */
+    public int count() {
+        if (filters.length == 0) {
+            final int size = pipeline.knownSize();
+            if (size >= 0) {
+                return size;
+            }
+        }
+
+        return forEach(IGNORE);
+    }
+
+    /**
+     * Returns the maximum value.
+     *
+     * @return The maximum value.
+     * @throws NoSuchElementException When there are no values.
+     */
+    public long max() {
+        final Extreme max = new Extreme(true);
+        if (forEach(max) == 0) {
+            throw new NoSuchElementException();
+        }
+        return max.value;
+    }
+
+    /**
+     * Returns the minimum value.
+     *
+     * @return The minimum value.
+     * @throws NoSuchElementException When there are no values.
+     */
+    public long min() {
+        final Extreme min = new Extreme(false);
+        if (forEach(min) == 0) {
+            throw new NoSuchElementException();
+        }
+        return min.value;
+    }
+
+    /**
+     * Computes the sum of the values.
+     *
+     * @return The sum of the values, or zero when there are no values.
+     * @throws ArithmeticException When the sum overflows a long.
+     */
+    public long sum() {
+        final Sum sum = new Sum();
+        forEach(sum);
+        return sum.value;
+    }
+
+    /**
+     * Returns an array from the values.
+     *
+     * @return An array from found values.
+     */
+    public long[] toArray() {
+        final Buffer buffer = new Buffer();
+        forEach(buffer);
+        return buffer.toArray();
+    }
+
+    /**
+     * Filters the values.
+     *
+     * @param predicate An method to determine whether a value meets a condition.
+     * @return A query that returns filtered values.
+     */
+    public LongQuery<T> where(final LongPredicate predicate) {
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        final LongPredicate[] result = new LongPredicate[filters.length + 1];
+        System.arraycopy(filters, 0, result, 0, filters.length);
+        result[filters.length] = predicate;
+
+        return new LongQuery<>(pipeline, selector, result);
+    }
+
+    private boolean accept(final long value) {
+        final LongPredicate[] filters = this.filters;
+        for (int i = 0; i < filters.length; i++) {
+            if (!filters[i].apply(value)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private long project(final Object value) {
+        return selector.call((T) value);
+    }
+
+    /**
+     * Runs the pipeline once and hands every value that meets the filters to the sink.
+     *
+     * @param sink The consumer of found values.
+     * @return The number of values handed to the sink.
+     */
+    private int forEach(final Sink sink) {
+        final Pipeline.Run run = pipeline.newRun();
+        final Iterator<?> iterator = pipeline.source().iterator();
+        int counter = 0;
+        while (!run.done && iterator.hasNext()) {
+            final Object value = run.apply(iterator.next());
+            if (value == Pipeline.SKIP) {
+                continue;
+            }
+
+            final long v = project(value);
+            if (accept(v)) {
+                sink.accept(v);
+                counter++;
+            }
+        }
+
+        return counter;
+    }
+
+    private interface Sink {
+        void accept(long value);
+    }
+
+    private static final class Total implements Sink {
+        double sum;
+
+        @Override
+        public void accept(final long value) {
+            sum += value;
+        }
+    }
+
+    private static final class Sum implements Sink {
+        long value;
+
+        @Override
+        public void accept(final long value) {
+            final long result = this.value + value;
+            // Overflow happened when both operands have a sign other than the result
+            if (((this.value ^ result) & (value ^ result)) < 0) {
+                throw new ArithmeticException("long overflow");
+            }
+            this.value = result;
+        }
+    }
+
+    private static final class Extreme implements Sink {
+        private final boolean max;
+        private boolean found;
+        long value;
+
+        Extreme(final boolean max) {
+            this.max = max;
+        }
+
+        @Override
+        public void accept(final long value) {
+            if (!found || (max ? value > this.value : value < this.value)) {
+                this.value = value;
+                found = true;
+            }
+        }
+    }
+
+    private static final class Buffer implements Sink {
+        private long[] values = new long[16];
+        private int size;
+
+        @Override
+        public void accept(final long value) {
+            if (size == values.length) {
+                final long[] grown = new long[size << 1];
+                System.arraycopy(values, 0, grown, 0, size);
+                values = grown;
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            if (size == values.length) {
+                return values;
+            }
+            final long[] trimmed = new long[size];
+            System.arraycopy(values, 0, trimmed, 0, size);
+            return trimmed;
+        }
+    }
+}
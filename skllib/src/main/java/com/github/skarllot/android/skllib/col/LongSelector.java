@@ -0,0 +1,13 @@
+package com.github.skarllot.android.skllib.col;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides a function that projects an element into a long value without boxing.
+ *
+ * @param <T> The type of parameter.
+ */
+public interface LongSelector<T> {
+    long call(T t);
+}
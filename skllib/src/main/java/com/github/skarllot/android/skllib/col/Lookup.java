@@ -0,0 +1,117 @@
+package com.github.skarllot.android.skllib.col;
+
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Represents a structure built once over a sequence of values to answer membership tests.
+ *
+ * @param <T> The type of elements.
+ */
+abstract class Lookup<T> {
+    /**
+     * The maximum number of elements which a linear scan is preferred over building a lookup
+     * structure.
+     */
+    static final int SCAN_THRESHOLD = 8;
+
+    /**
+     * Determines whether specified element exists into this lookup.
+     *
+     * @param t The element to look for.
+     * @return True whether element was found; otherwise, false.
+     */
+    abstract boolean contains(T t);
+
+    /**
+     * Creates a lookup that finds elements by comparator ordering.
+     * <p>The comparator must impose a total ordering, as required by {@link Comparator}.
+     *
+     * @param input      An object that provides a sequence of values.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param <T>        The type of elements.
+     * @return A new lookup over input elements.
+     */
+    static <T> Lookup<T> sorted(
+            final Iterable<T> input,
+            final Comparator<T> comparator
+    ) {
+        final int size = Query.knownSize(input);
+        if (size >= 0 && size <= SCAN_THRESHOLD) {
+            return new ScanLookup<>(input, comparator);
+        }
+
+        return new SortedLookup<>(input, comparator);
+    }
+
+    /**
+     * Creates a lookup that finds elements by hash code and equality.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param comparer  The comparer to test elements equality, or null to use default equality.
+     * @param prefilter Whether a Bloom filter answers misses before the hash table is probed.
+     * @param <T>       The type of elements.
+     * @return A new lookup over input elements.
+     */
+    static <T> Lookup<T> hashed(
+            final Iterable<T> input,
+            @Nullable final EqualityComparer<T> comparer,
+            final boolean prefilter
+    ) {
+        return OpenHashSet.from(input, comparer, prefilter);
+    }
+
+    /**
+     * A lookup that scans a small sequence of values.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class ScanLookup<T> extends Lookup<T> {
+        final Iterable<T> input;
+        final Comparator<T> comparator;
+
+        ScanLookup(Iterable<T> input, Comparator<T> comparator) {
+            this.input = input;
+            this.comparator = comparator;
+        }
+
+        @Override
+        boolean contains(T t) {
+            for (T item : input) {
+                if (comparator.compare(item, t) == 0) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * A lookup that binary searches a sorted copy of a sequence of values.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class SortedLookup<T> extends Lookup<T> {
+        final T[] items;
+        final Comparator<T> comparator;
+
+        @SuppressWarnings("unchecked")
+        SortedLookup(Iterable<T> input, Comparator<T> comparator) {
+            this.items = (T[]) Query.toList(input).toArray();
+            this.comparator = comparator;
+
+            Arrays.sort(items, comparator);
+        }
+
+        @Override
+        boolean contains(T t) {
+            return Arrays.binarySearch(items, t, comparator) >= 0;
+        }
+    }
+}
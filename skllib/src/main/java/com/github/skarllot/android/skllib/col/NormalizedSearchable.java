@@ -0,0 +1,61 @@
+package com.github.skarllot.android.skllib.col;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Represents an object that allows searching by normalized text.
+ * <p>The searchable text is normalized by {@link SearchableUtil#normalize(String)} on first
+ * match and kept until {@link #invalidate()} is called. Scans by {@link PredicableList},
+ * {@link SearchIndex} and {@link SearchableUtil#matchAny(Iterable, String)} normalize the filter
+ * once and test each element by {@link #matchNormalized(char[])}, so they allocate nothing per
+ * element.
+ */
+public abstract class NormalizedSearchable implements Searchable {
+    private volatile char[] normalized = null;
+
+    /**
+     * Gets the text which filters are looked up into, as every searchable field joined.
+     *
+     * @return A text to search.
+     */
+    protected abstract String getSearchText();
+
+    /**
+     * Discards the normalized text, which must be called when the searchable text changes.
+     */
+    protected void invalidate() {
+        normalized = null;
+    }
+
+    /**
+     * Determines whether current instance meets a specific filter string, ignoring case,
+     * diacritics and repeated whitespace.
+     *
+     * @param filter A text to lookup, or null to match any instance.
+     * @return True whether filter text could be found anywhere into current instance. Otherwise,
+     * false.
+     */
+    @Override
+    public boolean match(String filter) {
+        return filter == null || matchNormalized(SearchableUtil.normalize(filter));
+    }
+
+    /**
+     * Determines whether current instance meets a normalized filter, without allocating once the
+     * searchable text is normalized.
+     *
+     * @param filter A text normalized by {@link SearchableUtil#normalize(String)}.
+     * @return True whether filter text could be found anywhere into current instance. Otherwise,
+     * false.
+     */
+    public boolean matchNormalized(char[] filter) {
+        char[] text = normalized;
+        if (text == null) {
+            text = SearchableUtil.normalize(getSearchText());
+            normalized = text;
+        }
+
+        return SearchableUtil.contains(text, filter);
+    }
+}
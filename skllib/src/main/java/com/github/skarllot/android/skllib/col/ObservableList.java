@@ -0,0 +1,139 @@
+package com.github.skarllot.android.skllib.col;
+
+import android.support.annotation.NonNull;
+
+import com.github.skarllot.android.skllib.EventListener;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Represents a list that notifies listeners about every change of its elements.
+ * <p>Single-element changes are notified as insertions, removals and updates. Bulk changes are
+ * notified as a reset. Changes made inside an element are notified by calling
+ * {@link #notifyUpdated(int)}.
+ * <p>This class is not thread-safe; it is meant to be changed from the main thread.
+ *
+ * @param <T> The type of elements.
+ */
+public class ObservableList<T> extends AbstractList<T> implements RandomAccess {
+    private final List<T> items;
+    private final List<EventListener<ListChangeEventData<T>>> listeners = new ArrayList<>();
+
+    /**
+     * Creates a new empty instance of ObservableList.
+     */
+    public ObservableList() {
+        items = new ArrayList<>();
+    }
+
+    /**
+     * Creates a new instance of ObservableList holding specified elements.
+     *
+     * @param items The initial elements.
+     */
+    public ObservableList(@NonNull final Collection<? extends T> items) {
+        this.items = new ArrayList<>(items);
+    }
+
+    /**
+     * Registers a listener for change events.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(@NonNull final EventListener<ListChangeEventData<T>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener for change events.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(@NonNull final EventListener<ListChangeEventData<T>> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notifies listeners that the element at specified position was changed in place.
+     *
+     * @param position The position of changed element.
+     */
+    public void notifyUpdated(final int position) {
+        final T item = items.get(position);
+        trigger(ListChangeEventData.Action.Update, position, item, item);
+    }
+
+    @Override
+    public void add(final int location, final T object) {
+        items.add(location, object);
+        modCount++;
+        trigger(ListChangeEventData.Action.Insert, location, object, null);
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends T> collection) {
+        if (!items.addAll(collection)) {
+            return false;
+        }
+
+        modCount++;
+        trigger(ListChangeEventData.Action.Reset, -1, null, null);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        items.clear();
+        modCount++;
+        trigger(ListChangeEventData.Action.Reset, -1, null, null);
+    }
+
+    @Override
+    public T get(final int location) {
+        return items.get(location);
+    }
+
+    @Override
+    public T remove(final int location) {
+        final T old = items.remove(location);
+        modCount++;
+        trigger(ListChangeEventData.Action.Remove, location, null, old);
+        return old;
+    }
+
+    @Override
+    public T set(final int location, final T object) {
+        final T old = items.set(location, object);
+        trigger(ListChangeEventData.Action.Update, location, object, old);
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    private void trigger(
+            final ListChangeEventData.Action action,
+            final int position,
+            final T item,
+            final T oldItem
+    ) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+
+        final ListChangeEventData<T> data =
+                new ListChangeEventData<>(action, position, item, oldItem);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onTrigger(this, data);
+        }
+    }
+}
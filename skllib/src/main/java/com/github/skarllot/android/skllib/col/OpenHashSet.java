@@ -0,0 +1,261 @@
+package com.github.skarllot.android.skllib.col;
+
+import android.support.annotation.Nullable;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * A hash set that uses open addressing with linear probing.
+ * <p>Elements are kept into a single flat array, so no entry object is allocated per element.
+ *
+ * @param <T> The type of elements.
+ */
+final class OpenHashSet<T> extends Lookup<T> {
+    private static final Object NULL_KEY = new Object();
+    private static final int MIN_CAPACITY = 8;
+
+    private final EqualityComparer<T> comparer;
+    private Object[] table;
+    private int size = 0;
+    private BloomFilter prefilter = null;
+
+    /**
+     * Creates a new instance of OpenHashSet.
+     *
+     * @param expectedSize The number of elements expected to be added, or a negative number when
+     *                     unknown.
+     * @param comparer     The comparer to test elements equality, or null to use
+     *                     {@link Object#equals(Object)} and {@link Object#hashCode()}.
+     */
+    OpenHashSet(final int expectedSize, @Nullable final EqualityComparer<T> comparer) {
+        this.comparer = comparer;
+        this.table = new Object[tableSizeFor(expectedSize)];
+    }
+
+    /**
+     * Creates a new OpenHashSet filled with elements from specified sequence.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param comparer The comparer to test elements equality, or null to use default equality.
+     * @param <T>      The type of elements.
+     * @return A new OpenHashSet instance.
+     */
+    static <T> OpenHashSet<T> from(
+            final Iterable<T> input,
+            @Nullable final EqualityComparer<T> comparer
+    ) {
+        return from(input, comparer, false);
+    }
+
+    /**
+     * Creates a new OpenHashSet filled with elements from specified sequence.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param comparer  The comparer to test elements equality, or null to use default equality.
+     * @param prefilter Whether a Bloom filter is built to answer misses.
+     * @param <T>       The type of elements.
+     * @return A new OpenHashSet instance.
+     */
+    static <T> OpenHashSet<T> from(
+            final Iterable<T> input,
+            @Nullable final EqualityComparer<T> comparer,
+            final boolean prefilter
+    ) {
+        final OpenHashSet<T> set = new OpenHashSet<>(Query.knownSize(input), comparer);
+        for (T item : input) {
+            set.add(item);
+        }
+
+        if (prefilter) {
+            set.enablePrefilter();
+        }
+        return set;
+    }
+
+    /**
+     * Adds specified element to this set.
+     *
+     * @param t The element to add.
+     * @return True whether the element was added; false when it was already present.
+     */
+    boolean add(final T t) {
+        final Object key = t == null ? NULL_KEY : t;
+        final Object[] tab = table;
+        final int mask = tab.length - 1;
+
+        int i = hash(t) & mask;
+        Object current;
+        while ((current = tab[i]) != null) {
+            if (keyEquals(current, t)) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+
+        tab[i] = key;
+        if (prefilter != null) {
+            prefilter.add(hash(t));
+        }
+        if (++size > tab.length >> 1) {
+            resize();
+        }
+        return true;
+    }
+
+    @Override
+    boolean contains(final T t) {
+        final Object[] tab = table;
+        final int mask = tab.length - 1;
+        final int hash = hash(t);
+        if (prefilter != null && !prefilter.mightContain(hash)) {
+            return false;
+        }
+
+        int i = hash & mask;
+        Object current;
+        while ((current = tab[i]) != null) {
+            if (keyEquals(current, t)) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Builds a Bloom filter over current elements to answer misses before probing the table.
+     * <p>It pays off when this set is large and most looked up elements are not found.
+     */
+    void enablePrefilter() {
+        final BloomFilter filter = new BloomFilter(size);
+        for (Object key : table) {
+            if (key != null) {
+                filter.add(hash(keyOf(key)));
+            }
+        }
+
+        prefilter = filter;
+    }
+
+    /**
+     * Removes specified element from this set.
+     *
+     * @param t The element to remove.
+     * @return True whether the element was removed; false when it was not present.
+     */
+    boolean remove(final T t) {
+        final Object[] tab = table;
+        final int mask = tab.length - 1;
+        final int hash = hash(t);
+        if (prefilter != null && !prefilter.mightContain(hash)) {
+            return false;
+        }
+
+        int i = hash & mask;
+        Object current;
+        while ((current = tab[i]) != null) {
+            if (keyEquals(current, t)) {
+                break;
+            }
+            i = (i + 1) & mask;
+        }
+        if (current == null) {
+            return false;
+        }
+
+        // Shifts back following keys of the same cluster, so no probe sequence is broken
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            final Object key = tab[j];
+            if (key == null) {
+                break;
+            }
+
+            final int home = hash(keyOf(key)) & mask;
+            final boolean movable = i <= j
+                    ? home <= i || home > j
+                    : home <= i && home > j;
+            if (movable) {
+                tab[i] = key;
+                i = j;
+            }
+        }
+
+        tab[i] = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of elements into this set.
+     *
+     * @return The number of elements.
+     */
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean keyEquals(final Object key, final T t) {
+        if (key == NULL_KEY) {
+            return t == null;
+        }
+        if (t == null) {
+            return false;
+        }
+        if (comparer == null) {
+            return key == t || key.equals(t);
+        }
+
+        return comparer.equals((T) key, t);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T keyOf(final Object key) {
+        return key == NULL_KEY ? null : (T) key;
+    }
+
+    private int hash(final T t) {
+        if (t == null) {
+            return 0;
+        }
+
+        final int h = comparer == null ? t.hashCode() : comparer.getHashCode(t);
+        return h ^ (h >>> 16);
+    }
+
+    private void resize() {
+        final Object[] old = table;
+        final Object[] tab = new Object[old.length << 1];
+        final int mask = tab.length - 1;
+
+        for (Object key : old) {
+            if (key == null) {
+                continue;
+            }
+
+            int i = hash(keyOf(key)) & mask;
+            while (tab[i] != null) {
+                i = (i + 1) & mask;
+            }
+            tab[i] = key;
+        }
+
+        table = tab;
+    }
+
+    private static int tableSizeFor(final int expectedSize) {
+        if (expectedSize < 0) {
+            return MIN_CAPACITY * 2;
+        }
+
+        int capacity = MIN_CAPACITY;
+        while (capacity >> 1 < expectedSize && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
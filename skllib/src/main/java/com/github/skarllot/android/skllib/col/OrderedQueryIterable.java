@@ -0,0 +1,325 @@
+package com.github.skarllot.android.skllib.col;
+
+import android.support.annotation.Nullable;
+
+import com.android.internal.util.Predicate;
+import com.github.skarllot.android.skllib.Func2;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides a sequence of values sorted by a comparator.
+ * <p>Elements are sorted when iteration starts, and elements that compare equal keep their
+ * original order.
+ *
+ * @param <T> The type of elements
+ */
+public class OrderedQueryIterable<T> extends QueryIterable<T> {
+    private final Iterable<T> source;
+    private final Comparator<T> comparator;
+
+    OrderedQueryIterable(
+            final Iterable<T> source,
+            final Comparator<T> comparator
+    ) {
+        super(new SortedIterable<>(source, comparator));
+        this.source = source;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Returns the number of elements found.
+     * <p>Elements are not sorted to be counted.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public int count() {
+        return Query.count(source);
+    }
+
+    /**
+     * Returns the first element of sorted sequence.
+     * <p>Elements are not sorted, the smallest one is kept while reading the source.
+     *
+     * @return The first element if found; otherwise, null.
+     */
+    @Override
+    @Nullable
+    public T firstOrNull() {
+        return Query.firstOrNull(new TopIterable<>(source, comparator, 1));
+    }
+
+    /**
+     * Returns the first element of sorted sequence that meets a condition.
+     * <p>Elements are not sorted, the smallest matching one is kept while reading the source.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return The first matching element if found; otherwise, null.
+     */
+    @Override
+    @Nullable
+    public T firstOrNull(
+            final Func2<Boolean, T> predicate
+    ) {
+        return Query.firstOrNull(
+                new TopIterable<>(Query.where(source, predicate), comparator, 1));
+    }
+
+    /**
+     * Returns the first element of sorted sequence that meets a condition.
+     * <p>Elements are not sorted, the smallest matching one is kept while reading the source.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return The first matching element if found; otherwise, null.
+     */
+    @Override
+    @Nullable
+    public T firstOrNull(
+            final Predicate<T> predicate
+    ) {
+        return Query.firstOrNull(
+                new TopIterable<>(Query.where(source, predicate), comparator, 1));
+    }
+
+    /**
+     * Returns the first elements of sorted sequence.
+     * <p>Only the best {@code count} elements are kept while reading the source, so it takes
+     * O(n log count) time and O(count) memory.
+     *
+     * @param count The maximum number of elements to return.
+     * @return An iterable object that returns the first elements in sorted order.
+     */
+    @Override
+    public QueryIterable<T> take(final int count) {
+        if (count <= 0) {
+            return new QueryIterable<>(Collections.<T>emptyList());
+        }
+
+        return new QueryIterable<>(new TopIterable<>(source, comparator, count));
+    }
+
+    /**
+     * Sorts the elements once into a list.
+     * <p>Later lookups by the sorting comparator run a binary search.
+     *
+     * @return An iterable object over the sorted elements.
+     */
+    @SuppressWarnings("unchecked")
+    public SortedQueryIterable<T> toSorted() {
+        final T[] items = (T[]) Query.toList(source).toArray();
+        Arrays.sort(items, comparator);
+
+        return new SortedQueryIterable<>(Arrays.asList(items), comparator, false);
+    }
+
+    /**
+     * An Iterable type that sorts all elements.
+     *
+     * @param <T> The type of elements.
+     */
+    private static class SortedIterable<T> implements Iterable<T> {
+        final Iterable<T> source;
+        final Comparator<T> comparator;
+
+        public SortedIterable(Iterable<T> source, Comparator<T> comparator) {
+            this.source = source;
+            this.comparator = comparator;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Iterator<T> iterator() {
+            final T[] items = (T[]) Query.toList(source).toArray();
+            Arrays.sort(items, comparator);
+
+            return new ArrayIterator<>(items, items.length);
+        }
+    }
+
+    /**
+     * An Iterable type that keeps the best elements into a bounded heap.
+     *
+     * @param <T> The type of elements.
+     */
+    private static class TopIterable<T> implements Iterable<T> {
+        final Iterable<T> source;
+        final Comparator<T> comparator;
+        final int count;
+
+        public TopIterable(Iterable<T> source, Comparator<T> comparator, int count) {
+            this.source = source;
+            this.comparator = comparator;
+            this.count = count;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Iterator<T> iterator() {
+            final int size = Query.knownSize(source);
+            if (size >= 0 && size <= count) {
+                final T[] items = (T[]) Query.toList(source).toArray();
+                Arrays.sort(items, comparator);
+                return new ArrayIterator<>(items, items.length);
+            }
+
+            final BoundedHeap<T> heap = new BoundedHeap<>(comparator, count);
+            for (T item : source) {
+                heap.offer(item);
+            }
+
+            return new ArrayIterator<>(heap.drain(), heap.size);
+        }
+    }
+
+    /**
+     * A max-heap that keeps the smallest elements offered to it.
+     * <p>Elements that compare equal are ranked by arrival order, which keeps results stable.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class BoundedHeap<T> {
+        final Comparator<T> comparator;
+        final int limit;
+        T[] items;
+        int[] order;
+        int size = 0;
+        int arrivals = 0;
+
+        @SuppressWarnings("unchecked")
+        BoundedHeap(Comparator<T> comparator, int limit) {
+            final int capacity = Math.min(limit, 16);
+
+            this.comparator = comparator;
+            this.limit = limit;
+            this.items = (T[]) new Object[capacity];
+            this.order = new int[capacity];
+        }
+
+        void offer(T item) {
+            final int arrival = arrivals++;
+            if (size < limit) {
+                if (size == items.length) {
+                    final int capacity = (int) Math.min((long) size << 1, limit);
+                    items = Arrays.copyOf(items, capacity);
+                    order = Arrays.copyOf(order, capacity);
+                }
+
+                items[size] = item;
+                order[size] = arrival;
+                siftUp(size++);
+                return;
+            }
+
+            // Ties are lost by the new element, as it arrived later
+            if (comparator.compare(item, items[0]) < 0) {
+                items[0] = item;
+                order[0] = arrival;
+                siftDown(0, size);
+            }
+        }
+
+        /**
+         * Sorts the kept elements in place, from smallest to largest.
+         *
+         * @return The backing array of elements.
+         */
+        T[] drain() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+
+            return items;
+        }
+
+        private boolean greater(int a, int b) {
+            final int c = comparator.compare(items[a], items[b]);
+            if (c != 0) {
+                return c > 0;
+            }
+
+            return order[a] > order[b];
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (!greater(i, parent)) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int end) {
+            while (true) {
+                final int left = (i << 1) + 1;
+                if (left >= end) {
+                    break;
+                }
+
+                final int right = left + 1;
+                final int largest = right < end && greater(right, left) ? right : left;
+                if (!greater(largest, i)) {
+                    break;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            final T item = items[a];
+            items[a] = items[b];
+            items[b] = item;
+
+            final int index = order[a];
+            order[a] = order[b];
+            order[b] = index;
+        }
+    }
+
+    /**
+     * An iterator over a range of an array.
+     *
+     * @param <T> The type of elements
+     */
+    private static final class ArrayIterator<T> implements Iterator<T> {
+        final T[] items;
+        final int size;
+        int index = 0;
+
+        ArrayIterator(T[] items, int size) {
+            this.items = items;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public T next() throws NoSuchElementException {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+
+            return items[index++];
+        }
+
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.android.internal.util.Predicate;
+import com.github.skarllot.android.skllib.Func2;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides a sequence of values whose queries run on several threads.
+ * <p>When the source is a random-access {@link List} it is split into ranges, each range runs
+ * every stage on its own task and the results are merged in the original order. Other sources,
+ * and queries whose stages depend on previous elements, run on the calling thread.
+ * <p>Predicates and selectors must be safe to call from several threads at once.
+ *
+ * @param <T> The type of elements
+ */
+public class ParallelQueryIterable<T> implements Iterable<T> {
+    /**
+     * The minimum number of elements which a range is worth running on its own task.
+     */
+    static final int MIN_CHUNK_SIZE = 1024;
+
+    private final Pipeline<T> pipeline;
+    private final Executor executor;
+    private final int parallelism;
+
+    ParallelQueryIterable(
+            final Pipeline<T> pipeline,
+            final Executor executor,
+            final int parallelism
+    ) {
+        this.pipeline = pipeline;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Feeds several accumulators from a single pass over input elements.
+     * <p>Each range feeds its own accumulators, created by {@link Accumulator#newAccumulator()},
+     * which are then merged into given ones in source order.
+     *
+     * @param accumulators The accumulators to add each element to.
+     */
+    @SafeVarargs
+    @SuppressWarnings({"unchecked", "rawtypes", "varargs"})
+    public final void aggregate(
+            final Accumulator<? super T, ?>... accumulators
+    ) {
+        if (accumulators == null) {
+            throw new NullPointerException("accumulators == null");
+        }
+        if (!isRandomAccess()) {
+            Query.aggregate(pipeline, accumulators);
+            return;
+        }
+
+        final List<Accumulator[]> parts = run(new Chunk<Accumulator[]>() {
+            @Override
+            Accumulator[] call(List<?> source, int from, int to) {
+                final Accumulator[] part = new Accumulator[accumulators.length];
+                for (int i = 0; i < part.length; i++) {
+                    part[i] = accumulators[i].newAccumulator();
+                }
+
+                for (int i = from; i < to; i++) {
+                    final Object value = pipeline.apply(source.get(i));
+                    if (value != Pipeline.SKIP) {
+                        for (Accumulator accumulator : part) {
+                            accumulator.add(value);
+                        }
+                    }
+                }
+
+                return part;
+            }
+        });
+
+        for (Accumulator[] part : parts) {
+            for (int i = 0; i < part.length; i++) {
+                ((Accumulator) accumulators[i]).merge(part[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements found.
+     *
+     * @return The number of elements.
+     */
+    public int count() {
+        final int size = pipeline.knownSize();
+        if (size >= 0) {
+            return size;
+        }
+        if (!isRandomAccess()) {
+            return pipeline.count();
+        }
+
+        final List<Integer> counts = run(new Chunk<Integer>() {
+            @Override
+            Integer call(List<?> source, int from, int to) {
+                int counter = 0;
+                for (int i = from; i < to; i++) {
+                    if (pipeline.apply(source.get(i)) != Pipeline.SKIP) {
+                        counter++;
+                    }
+                }
+
+                return counter;
+            }
+        });
+
+        int counter = 0;
+        for (Integer c : counts) {
+            counter += c;
+        }
+
+        return counter;
+    }
+
+    /**
+     * Determines whether specified element exists into input elements.
+     * <p>Every range stops as soon as any range finds the element.
+     *
+     * @param t          The element to look for.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @return True whether element was found; otherwise, false.
+     */
+    public boolean exists(
+            final T t,
+            final Comparator<T> comparator
+    ) {
+        if (t == null) {
+            throw new NullPointerException("t == null");
+        }
+        if (comparator == null) {
+            throw new NullPointerException("comparator == null");
+        }
+        if (!isRandomAccess()) {
+            return pipeline.exists(t, comparator);
+        }
+
+        final AtomicBoolean found = new AtomicBoolean(false);
+        run(new Chunk<Void>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            Void call(List<?> source, int from, int to) {
+                for (int i = from; i < to && !found.get(); i++) {
+                    final Object value = pipeline.apply(source.get(i));
+                    if (value != Pipeline.SKIP && comparator.compare((T) value, t) == 0) {
+                        found.set(true);
+                    }
+                }
+
+                return null;
+            }
+        });
+
+        return found.get();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return pipeline.iterator();
+    }
+
+    /**
+     * Projects the elements into a new type.
+     *
+     * @param selector An method to transform elements.
+     * @param <R>      The type of projected elements.
+     * @return An iterable object that returns projected elements from input.
+     */
+    public <R> ParallelQueryIterable<R> select(
+            final Func2<R, T> selector
+    ) {
+        if (selector == null) {
+            throw new NullPointerException("selector == null");
+        }
+
+        return new ParallelQueryIterable<>(pipeline.select(selector), executor, parallelism);
+    }
+
+    /**
+     * Returns a sequential query over the same elements.
+     *
+     * @return An iterable object whose queries run on the calling thread.
+     */
+    public QueryIterable<T> sequential() {
+        return new QueryIterable<>(pipeline);
+    }
+
+    /**
+     * Returns a list from iterable object.
+     *
+     * @return A list from found elements, in source order.
+     */
+    public List<T> toList() {
+        if (!isRandomAccess()) {
+            return pipeline.toList();
+        }
+
+        final List<List<T>> parts = run(new Chunk<List<T>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            List<T> call(List<?> source, int from, int to) {
+                final List<T> result = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    final Object value = pipeline.apply(source.get(i));
+                    if (value != Pipeline.SKIP) {
+                        result.add((T) value);
+                    }
+                }
+
+                return result;
+            }
+        });
+
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+
+        int size = 0;
+        for (List<T> part : parts) {
+            size += part.size();
+        }
+
+        final List<T> result = new ArrayList<>(size);
+        for (List<T> part : parts) {
+            result.addAll(part);
+        }
+
+        return result;
+    }
+
+    /**
+     * Filters the elements from iterable object.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return An iterable object that returns filtered elements from input.
+     */
+    public ParallelQueryIterable<T> where(
+            final Func2<Boolean, T> predicate
+    ) {
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return new ParallelQueryIterable<>(pipeline.where(predicate), executor, parallelism);
+    }
+
+    /**
+     * Filters the elements from iterable object.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return An iterable object that returns filtered elements from input.
+     */
+    public ParallelQueryIterable<T> where(
+            final Predicate<T> predicate
+    ) {
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return new ParallelQueryIterable<>(pipeline.where(predicate), executor, parallelism);
+    }
+
+    /**
+     * Runs a chunk function over every range of a random-access source.
+     * <p>When a range fails, the ranges still pending or running are cancelled before the
+     * failure is thrown.
+     *
+     * @param chunk The function to run.
+     * @param <R>   The type of chunk results.
+     * @return The results of every range, in source order.
+     */
+    private <R> List<R> run(final Chunk<R> chunk) {
+        final List<R> results = new ArrayList<>();
+        final List<?> source = (List<?>) pipeline.source();
+        final int size = source.size();
+        final int chunks = Math.max(1, Math.min(parallelism, size / MIN_CHUNK_SIZE));
+        if (chunks == 1) {
+            results.add(chunk.call(source, 0, size));
+            return results;
+        }
+
+        final List<FutureTask<R>> tasks = new ArrayList<>(chunks - 1);
+        final int step = size / chunks;
+        boolean completed = false;
+        try {
+            for (int i = 1; i < chunks; i++) {
+                final int from = i * step;
+                final int to = i == chunks - 1 ? size : from + step;
+                final FutureTask<R> task = new FutureTask<>(new Callable<R>() {
+                    @Override
+                    public R call() throws Exception {
+                        return chunk.call(source, from, to);
+                    }
+                });
+
+                tasks.add(task);
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    task.run();
+                }
+            }
+
+            results.add(chunk.call(source, 0, step));
+            for (FutureTask<R> task : tasks) {
+                results.add(await(task));
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                // A range failed, so the other ranges are not worth keeping executor threads busy
+                for (FutureTask<R> task : tasks) {
+                    task.cancel(true);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    private boolean isRandomAccess() {
+        final Iterable<?> source = pipeline.source;
+        return source instanceof List && source instanceof RandomAccess && !pipeline.isStateful();
+    }
+
+    private static <R> R await(final FutureTask<R> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for query", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Defines a function that runs over a range of the source.
+     *
+     * @param <R> The type of result.
+     */
+    private static abstract class Chunk<R> {
+        abstract R call(List<?> source, int from, int to);
+    }
+}
@@ -0,0 +1,897 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.android.internal.util.Predicate;
+import com.github.skarllot.android.skllib.Func2;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * A sequence of values produced by a chain of stages applied over a source.
+ * <p>Stages are recorded instead of wrapping one iterator into another, so each element flows
+ * through every stage into a single loop when the pipeline is consumed.
+ * <p>While a list source is only projected, skipping and taking elements narrow the range of the
+ * source that is read instead of adding stages.
+ * <p>Stages are planned before the pipeline is consumed: filters marked as source-level are moved
+ * ahead of the projections that directly precede them, adjacent filters are merged into a single
+ * stage and adjacent counted skips and takes are collapsed.
+ *
+ * @param <T> The type of elements.
+ */
+final class Pipeline<T> implements Iterable<T>, Pushable<T> {
+    /**
+     * Marks an element rejected by a stage.
+     */
+    static final Object SKIP = new Object();
+
+    private static final Stage[] NO_STAGES = new Stage[0];
+
+    final Iterable<?> source;
+    final Stage[] stages;
+    private final int offset;
+    private final int limit;
+    private volatile Stage[] plan = null;
+
+    private Pipeline(Iterable<?> source, Stage[] stages, int offset, int limit) {
+        this.source = source;
+        this.stages = stages;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * Gets the pipeline which stages can be appended to.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param <T>   The type of elements.
+     * @return The pipeline backing input, or a new pipeline with no stages.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Pipeline<T> of(final Iterable<T> input) {
+        final Iterable<T> unwrapped = Query.unwrap(input);
+        if (unwrapped instanceof Pipeline) {
+            return (Pipeline<T>) unwrapped;
+        }
+
+        return new Pipeline<>(unwrapped, NO_STAGES, 0, -1);
+    }
+
+    /**
+     * Gets a pipeline which source-level filters test the elements of input.
+     * <p>A pipeline backing input is kept as is when it does not project elements; otherwise, a
+     * stage is appended to it that marks current elements as the ones tested by source-level
+     * filters, so the source and stages of input are still run into a single loop.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param <T>   The type of elements.
+     * @return A pipeline which source elements are of type T.
+     */
+    static <T> Pipeline<T> ofSource(final Iterable<T> input) {
+        final Pipeline<T> pipeline = of(input);
+        for (Stage stage : pipeline.stages) {
+            if (stage.kind == Stage.SELECT) {
+                return pipeline.append(new Stage(Stage.ORIGIN, null, 0));
+            }
+        }
+
+        return pipeline;
+    }
+
+    /**
+     * Creates a new pipeline that stops reading the source once a condition is not met.
+     * <p>The condition is tested over each source element ahead of every stage, so it runs even
+     * for elements that later stages reject.
+     *
+     * @param predicate An method, either a Func2 or a Predicate, to test each source element.
+     * @return A new pipeline.
+     */
+    Pipeline<T> guard(final Object predicate) {
+        final Stage[] result = new Stage[stages.length + 1];
+        result[0] = new Stage(Stage.TAKE_WHILE, predicate, 0);
+        System.arraycopy(stages, 0, result, 1, stages.length);
+        return new Pipeline<>(source, result, offset, limit);
+    }
+
+    /**
+     * Creates a new pipeline that filters elements from this one.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return A new pipeline.
+     */
+    Pipeline<T> where(final Func2<Boolean, T> predicate) {
+        return append(new Stage(Stage.WHERE, predicate, 0));
+    }
+
+    /**
+     * Creates a new pipeline that filters elements from this one.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return A new pipeline.
+     */
+    Pipeline<T> where(final Predicate<T> predicate) {
+        return append(new Stage(Stage.PREDICATE, predicate, 0));
+    }
+
+    /**
+     * Creates a new pipeline that filters elements from this one by testing the source elements.
+     * <p>Source-level filters are evaluated before the projections that directly precede them, so
+     * projections are not run over rejected elements. They never move ahead of other filters or
+     * of counted and conditional stages.
+     *
+     * @param predicate An method, either a Func2 or a Predicate, to test each source element.
+     * @return A new pipeline.
+     */
+    Pipeline<T> whereSource(final Object predicate) {
+        return append(new Stage(Stage.SOURCE_WHERE, predicate, 0));
+    }
+
+    /**
+     * Creates a new pipeline that projects elements from this one.
+     *
+     * @param selector An method to transform elements.
+     * @param <R>      The type of projected elements.
+     * @return A new pipeline.
+     */
+    <R> Pipeline<R> select(final Func2<R, T> selector) {
+        return append(new Stage(Stage.SELECT, selector, 0));
+    }
+
+    /**
+     * Creates a new pipeline that bypasses a number of elements from this one.
+     *
+     * @param count The number of elements to skip.
+     * @return A new pipeline.
+     */
+    Pipeline<T> skip(final int count) {
+        if (count <= 0) {
+            return this;
+        }
+        if (isIndexed()) {
+            final int from = (int) Math.min((long) offset + count, Integer.MAX_VALUE);
+            final int remaining = limit < 0 ? -1 : Math.max(0, limit - count);
+            return new Pipeline<>(source, stages, from, remaining);
+        }
+
+        return append(new Stage(Stage.SKIP_COUNT, null, count));
+    }
+
+    /**
+     * Creates a new pipeline that bypasses elements from this one while a condition is met.
+     *
+     * @param predicate An method, either a Func2 or a Predicate, to test each element.
+     * @return A new pipeline.
+     */
+    Pipeline<T> skipWhile(final Object predicate) {
+        return append(new Stage(Stage.SKIP_WHILE, predicate, 0));
+    }
+
+    /**
+     * Creates a new pipeline that returns a number of elements from this one.
+     *
+     * @param count The maximum number of elements to return.
+     * @return A new pipeline.
+     */
+    Pipeline<T> take(final int count) {
+        final int n = Math.max(count, 0);
+        if (isIndexed()) {
+            return new Pipeline<>(source, stages, offset, limit < 0 ? n : Math.min(limit, n));
+        }
+
+        return append(new Stage(Stage.TAKE_COUNT, null, n));
+    }
+
+    /**
+     * Creates a new pipeline that returns elements from this one while a condition is met.
+     *
+     * @param predicate An method, either a Func2 or a Predicate, to test each element.
+     * @return A new pipeline.
+     */
+    Pipeline<T> takeWhile(final Object predicate) {
+        return append(new Stage(Stage.TAKE_WHILE, predicate, 0));
+    }
+
+    /**
+     * Runs every stage over a source element.
+     * <p>Only valid when {@link #isStateful()} returns false.
+     *
+     * @param item The source element.
+     * @return The resulting element, or {@link #SKIP} when it was rejected.
+     */
+    Object apply(Object item) {
+        final Stage[] stages = plan();
+        Object origin = item;
+        for (int i = 0; i < stages.length && item != SKIP; i++) {
+            if (stages[i].kind == Stage.ORIGIN) {
+                origin = item;
+            } else {
+                item = applyStateless(stages[i], origin, item);
+            }
+        }
+
+        return item;
+    }
+
+    /**
+     * Determines whether any element exists, optionally meeting a condition.
+     *
+     * @param predicate An method, either a Func2 or a Predicate, to determine whether an element
+     *                  meets a condition, or null to accept any element.
+     * @return True whether an element was found; otherwise, false.
+     */
+    boolean any(final Object predicate) {
+        final Run run = newRun();
+        final Iterator<?> iterator = source().iterator();
+        while (!run.done && iterator.hasNext()) {
+            final Object value = run.apply(iterator.next());
+            if (value != SKIP && (predicate == null || test(predicate, value))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines whether every element meets a condition.
+     *
+     * @param predicate An method, either a Func2 or a Predicate, to determine whether an element
+     *                  meets a condition.
+     * @return True whether no element fails the condition; otherwise, false.
+     */
+    boolean all(final Object predicate) {
+        final Run run = newRun();
+        final Iterator<?> iterator = source().iterator();
+        while (!run.done && iterator.hasNext()) {
+            final Object value = run.apply(iterator.next());
+            if (value != SKIP && !test(predicate, value)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the element at specified position without running stages over other elements.
+     * <p>Only valid when {@link #isIndexed()} returns true.
+     *
+     * @param position The position of the element to return.
+     * @return The requested element.
+     * @throws IndexOutOfBoundsException When position is out of source bounds.
+     */
+    @SuppressWarnings("unchecked")
+    T get(final int position) {
+        final List<?> list = (List<?>) source;
+        if (position < 0 || position >= size(list)) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return (T) apply(list.get(offset + position));
+    }
+
+    /**
+     * Describes how this pipeline is run, one operator per line from source to result.
+     *
+     * @return A text describing the planned stages.
+     */
+    String explain() {
+        final StringBuilder builder = new StringBuilder("Scan ").append(describe(source));
+        if (offset > 0 || limit >= 0) {
+            builder.append(" [").append(offset).append(", ")
+                    .append(limit < 0 ? "end" : String.valueOf((long) offset + limit))
+                    .append(')');
+        }
+        final int size = knownSize();
+        if (size >= 0) {
+            builder.append(" (").append(size).append(" elements)");
+        }
+
+        for (Stage stage : plan()) {
+            builder.append("\n  -> ").append(stage);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Determines whether every element can be reached by position in constant time.
+     *
+     * @return True whether source is a list and no stage drops elements; otherwise, false.
+     */
+    boolean isIndexed() {
+        return source instanceof List && preservesSize();
+    }
+
+    /**
+     * Determines whether any stage keeps state while the pipeline is consumed.
+     *
+     * @return True whether a stage depends on previous elements; otherwise, false.
+     */
+    boolean isStateful() {
+        for (Stage stage : stages) {
+            if (stage.kind >= Stage.SKIP_COUNT) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the number of elements when it can be determined without running stages.
+     *
+     * @return The number of elements if known; otherwise, -1.
+     */
+    int knownSize() {
+        if (!preservesSize()) {
+            return -1;
+        }
+        if (source instanceof List) {
+            return size((List<?>) source);
+        }
+
+        return Query.knownSize(source);
+    }
+
+    /**
+     * Creates the state of a single pass over this pipeline.
+     *
+     * @return A new run.
+     */
+    Run newRun() {
+        return new Run(plan());
+    }
+
+    /**
+     * Gets the stages planned for running this pipeline.
+     *
+     * @return The stages to run, equivalent to recorded ones.
+     */
+    Stage[] plan() {
+        Stage[] result = plan;
+        if (result == null) {
+            plan = result = optimize(stages);
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the sequence of values read by this pipeline.
+     *
+     * @return The source, narrowed to the skipped and taken range when it applies.
+     */
+    Iterable<?> source() {
+        if (offset == 0 && limit < 0) {
+            return source;
+        }
+
+        final List<?> list = (List<?>) source;
+        final int from = Math.min(offset, list.size());
+        return list.subList(from, from + size(list));
+    }
+
+    /**
+     * Returns the number of elements found.
+     *
+     * @return The number of elements.
+     */
+    int count() {
+        final int size = knownSize();
+        if (size >= 0) {
+            return size;
+        }
+
+        final Run run = newRun();
+        final Iterator<?> iterator = source().iterator();
+        int counter = 0;
+        while (!run.done && iterator.hasNext()) {
+            if (run.apply(iterator.next()) != SKIP) {
+                counter++;
+            }
+        }
+
+        return counter;
+    }
+
+    /**
+     * Determines whether specified element exists into this pipeline.
+     *
+     * @param t          The element to look for.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @return True whether element was found; otherwise, false.
+     */
+    @SuppressWarnings("unchecked")
+    boolean exists(final T t, final Comparator<T> comparator) {
+        final Run run = newRun();
+        final Iterator<?> iterator = source().iterator();
+        while (!run.done && iterator.hasNext()) {
+            final Object result = run.apply(iterator.next());
+            if (result != SKIP && comparator.compare((T) result, t) == 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the first element of this pipeline.
+     *
+     * @return The first element if found; otherwise, null.
+     */
+    @SuppressWarnings("unchecked")
+    T firstOrNull() {
+        final Run run = newRun();
+        final Iterator<?> iterator = source().iterator();
+        while (!run.done && iterator.hasNext()) {
+            final Object result = run.apply(iterator.next());
+            if (result != SKIP) {
+                return (T) result;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Pushes every element of this pipeline to a consumer until it asks to stop.
+     * <p>When the source is pushable too, no iterator is created at all.
+     *
+     * @param consumer An method that receives each element and returns whether to continue.
+     * @return True whether every element was pushed; otherwise, false.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean forEachWhile(final Predicate<? super T> consumer) {
+        final Iterable<?> source = source();
+        if (source instanceof Pushable) {
+            final StageSink<T> sink = new StageSink<>(newRun(), consumer);
+            if (!sink.run.done) {
+                ((Pushable<Object>) source).forEachWhile(sink);
+            }
+            return !sink.stopped;
+        }
+
+        final Run run = newRun();
+        final Iterator<?> iterator = source.iterator();
+        while (!run.done && iterator.hasNext()) {
+            final Object value = run.apply(iterator.next());
+            if (value != SKIP && !consumer.apply((T) value)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns a list from this pipeline.
+     *
+     * @return A list from found elements.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> toList() {
+        final int size = knownSize();
+        final List<T> result = size >= 0 ? new ArrayList<T>(size) : new ArrayList<T>();
+        final Run run = newRun();
+        final Iterator<?> iterator = source().iterator();
+        while (!run.done && iterator.hasNext()) {
+            final Object value = run.apply(iterator.next());
+            if (value != SKIP) {
+                result.add((T) value);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new FusedIterator<>(plan(), source().iterator());
+    }
+
+    private boolean preservesSize() {
+        for (Stage stage : stages) {
+            if (stage.kind != Stage.SELECT && stage.kind != Stage.ORIGIN) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String describe(final Iterable<?> source) {
+        final Class<?> type = source.getClass();
+        final String name = type.getSimpleName();
+        return name.isEmpty() ? type.getName() : name;
+    }
+
+    /**
+     * Rewrites stages into an equivalent sequence that is cheaper to run.
+     *
+     * @param stages The recorded stages.
+     * @return The planned stages.
+     */
+    private static Stage[] optimize(final Stage[] stages) {
+        if (stages.length < 2) {
+            return stages;
+        }
+
+        // Push source-level filters ahead of the projections right before them, keeping their
+        // order; filters and stateful stages are barriers, as they may guard source-level filters,
+        // and so are source marks, which change the elements tested by source-level filters
+        final List<Stage> ordered = new ArrayList<>(stages.length);
+        int barrier = 0;
+        for (int i = 0; i < stages.length; i++) {
+            final Stage stage = stages[i];
+            if (stage.kind == Stage.ORIGIN && !testsOrigin(stages, i + 1)) {
+                continue;
+            }
+            if (stage.kind == Stage.SOURCE_WHERE) {
+                int position = barrier;
+                while (position < ordered.size()
+                        && ordered.get(position).kind == Stage.SOURCE_WHERE) {
+                    position++;
+                }
+                ordered.add(position, stage);
+            } else {
+                ordered.add(stage);
+                if (stage.kind != Stage.SELECT) {
+                    barrier = ordered.size();
+                }
+            }
+        }
+
+        // Merge adjacent filters and collapse adjacent counted stages
+        final List<Stage> result = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); ) {
+            final Stage stage = ordered.get(i);
+            int end = i + 1;
+            while (end < ordered.size() && mergeable(stage, ordered.get(end))) {
+                end++;
+            }
+
+            result.add(end - i == 1 ? stage : merge(ordered.subList(i, end)));
+            i = end;
+        }
+
+        return result.toArray(new Stage[result.size()]);
+    }
+
+    // Determines whether a source-level filter runs from specified stage before the next mark
+    private static boolean testsOrigin(final Stage[] stages, final int from) {
+        for (int i = from; i < stages.length && stages[i].kind != Stage.ORIGIN; i++) {
+            if (stages[i].kind == Stage.SOURCE_WHERE) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean mergeable(final Stage first, final Stage second) {
+        switch (first.kind) {
+            case Stage.WHERE:
+            case Stage.PREDICATE:
+                return second.kind == Stage.WHERE || second.kind == Stage.PREDICATE;
+            default:
+                return (first.kind == Stage.SOURCE_WHERE
+                        || first.kind == Stage.SKIP_COUNT
+                        || first.kind == Stage.TAKE_COUNT)
+                        && second.kind == first.kind;
+        }
+    }
+
+    private static Stage merge(final List<Stage> group) {
+        final int kind = group.get(0).kind;
+        if (kind == Stage.SKIP_COUNT || kind == Stage.TAKE_COUNT) {
+            long count = kind == Stage.SKIP_COUNT ? 0 : Integer.MAX_VALUE;
+            for (Stage stage : group) {
+                count = kind == Stage.SKIP_COUNT
+                        ? count + stage.count : Math.min(count, stage.count);
+            }
+            return new Stage(kind, null, (int) Math.min(count, Integer.MAX_VALUE));
+        }
+
+        final Object[] predicates = new Object[group.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = group.get(i).function;
+        }
+        return new Stage(
+                kind == Stage.SOURCE_WHERE ? Stage.SOURCE_WHERE_ALL : Stage.WHERE_ALL,
+                predicates,
+                0);
+    }
+
+    private int size(final List<?> list) {
+        final int available = Math.max(0, list.size() - offset);
+        return limit < 0 ? available : Math.min(available, limit);
+    }
+
+    private <R> Pipeline<R> append(final Stage stage) {
+        final Stage[] result = new Stage[stages.length + 1];
+        System.arraycopy(stages, 0, result, 0, stages.length);
+        result[stages.length] = stage;
+
+        return new Pipeline<>(source, result, offset, limit);
+    }
+
+    /**
+     * Runs a stage that keeps no state over an element.
+     *
+     * @param stage  The stage to run.
+     * @param origin The element tested by source-level filters.
+     * @param item   The element produced by previous stages.
+     * @return The resulting element, or {@link #SKIP} when it was rejected.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object applyStateless(
+            final Stage stage,
+            final Object origin,
+            final Object item
+    ) {
+        switch (stage.kind) {
+            case Stage.WHERE:
+                return ((Func2<Boolean, Object>) stage.function).call(item) ? item : SKIP;
+            case Stage.PREDICATE:
+                return ((Predicate<Object>) stage.function).apply(item) ? item : SKIP;
+            case Stage.SELECT:
+                return ((Func2<Object, Object>) stage.function).call(item);
+            case Stage.SOURCE_WHERE:
+                return test(stage.function, origin) ? item : SKIP;
+            case Stage.WHERE_ALL:
+                return testAll((Object[]) stage.function, item) ? item : SKIP;
+            case Stage.SOURCE_WHERE_ALL:
+                return testAll((Object[]) stage.function, origin) ? item : SKIP;
+            default:
+                throw new IllegalStateException("Stage keeps state: " + stage);
+        }
+    }
+
+    private static boolean testAll(final Object[] predicates, final Object item) {
+        for (Object predicate : predicates) {
+            if (!test(predicate, item)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean test(final Object predicate, final Object item) {
+        if (predicate instanceof Predicate) {
+            return ((Predicate<Object>) predicate).apply(item);
+        }
+
+        return ((Func2<Boolean, Object>) predicate).call(item);
+    }
+
+    /**
+     * Represents a single operation of a pipeline.
+     */
+    static final class Stage {
+        static final int WHERE = 0;
+        static final int PREDICATE = 1;
+        static final int SELECT = 2;
+        static final int SOURCE_WHERE = 3;
+        // Planned stages, holding an array of predicates
+        static final int WHERE_ALL = 4;
+        static final int SOURCE_WHERE_ALL = 5;
+        // Marks current elements as the ones tested by following source-level filters
+        static final int ORIGIN = 6;
+        // Stateful stages
+        static final int SKIP_COUNT = 7;
+        static final int SKIP_WHILE = 8;
+        static final int TAKE_COUNT = 9;
+        static final int TAKE_WHILE = 10;
+
+        final int kind;
+        final Object function;
+        final int count;
+
+        Stage(int kind, Object function, int count) {
+            this.kind = kind;
+            this.function = function;
+            this.count = count;
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case WHERE:
+                case PREDICATE:
+                    return "Where";
+                case SELECT:
+                    return "Select";
+                case SOURCE_WHERE:
+                    return "Where on source";
+                case WHERE_ALL:
+                    return "Where (" + ((Object[]) function).length + " predicates merged)";
+                case SOURCE_WHERE_ALL:
+                    return "Where on source (" + ((Object[]) function).length
+                            + " predicates merged)";
+                case ORIGIN:
+                    return "Mark source";
+                case SKIP_COUNT:
+                    return "Skip " + count;
+                case SKIP_WHILE:
+                    return "SkipWhile";
+                case TAKE_COUNT:
+                    return "Take " + count;
+                default:
+                    return "TakeWhile";
+            }
+        }
+    }
+
+    /**
+     * Represents the state of a single pass over a pipeline.
+     * <p>Once {@link #done} is set no further element can be returned, so the source must not be
+     * read anymore.
+     */
+    static class Run {
+        final Stage[] stages;
+        private int[] counters = null;
+        boolean done = false;
+
+        Run(Stage[] stages) {
+            this.stages = stages;
+
+            for (Stage stage : stages) {
+                if (stage.kind == Stage.TAKE_COUNT && stage.count == 0) {
+                    done = true;
+                }
+            }
+        }
+
+        /**
+         * Runs every stage over a source element.
+         *
+         * @param item The source element.
+         * @return The resulting element, or {@link #SKIP} when it was rejected.
+         */
+        Object apply(Object item) {
+            final Stage[] stages = this.stages;
+            Object origin = item;
+            for (int i = 0; i < stages.length; i++) {
+                final Stage stage = stages[i];
+                switch (stage.kind) {
+                    case Stage.SKIP_COUNT:
+                        if (counter(i) < stage.count) {
+                            counters[i]++;
+                            return SKIP;
+                        }
+                        break;
+                    case Stage.SKIP_WHILE:
+                        if (counter(i) == 0) {
+                            if (test(stage.function, item)) {
+                                return SKIP;
+                            }
+                            counters[i] = 1;
+                        }
+                        break;
+                    case Stage.TAKE_COUNT:
+                        if (++counters()[i] >= stage.count) {
+                            done = true;
+                        }
+                        break;
+                    case Stage.TAKE_WHILE:
+                        if (!test(stage.function, item)) {
+                            done = true;
+                            return SKIP;
+                        }
+                        break;
+                    case Stage.ORIGIN:
+                        origin = item;
+                        break;
+                    default:
+                        item = applyStateless(stage, origin, item);
+                        if (item == SKIP) {
+                            return SKIP;
+                        }
+                        break;
+                }
+            }
+
+            return item;
+        }
+
+        private int counter(final int stage) {
+            return counters()[stage];
+        }
+
+        private int[] counters() {
+            if (counters == null) {
+                counters = new int[stages.length];
+            }
+
+            return counters;
+        }
+    }
+
+    /**
+     * A consumer that runs every stage of a pipeline for each element pushed by the source.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class StageSink<T> implements Predicate<Object> {
+        final Run run;
+        final Predicate<? super T> consumer;
+        boolean stopped = false;
+
+        StageSink(Run run, Predicate<? super T> consumer) {
+            this.run = run;
+            this.consumer = consumer;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean apply(Object item) {
+            final Object value = run.apply(item);
+            if (value != SKIP && !consumer.apply((T) value)) {
+                stopped = true;
+                return false;
+            }
+
+            return !run.done;
+        }
+    }
+
+    /**
+     * An iterator that runs every stage of a pipeline for each source element.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class FusedIterator<T> extends Run implements Iterator<T> {
+        final Iterator<?> iterator;
+        Object nextItem = null;
+        boolean hasNextItem = false;
+
+        FusedIterator(Stage[] stages, Iterator<?> iterator) {
+            super(stages);
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNextItem)
+                return true;
+
+            while (!done && iterator.hasNext()) {
+                final Object item = apply(iterator.next());
+                if (item != SKIP) {
+                    nextItem = item;
+                    hasNextItem = true;
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final T item = (T) nextItem;
+            nextItem = null;
+            hasNextItem = false;
+            return item;
+        }
+
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,18 +1,42 @@
 package com.github.skarllot.android.skllib.col;
 
-import com.android.internal.util.Predicate;
 import com.github.skarllot.android.skllib.Func2;
 
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.RandomAccess;
+
 // Authors:
 //  Fabrício Godoy <skarllot@gmail.com>, 2015.
 
 /**
  * An element filter for List objects.
+ * <p>Target is read again by each selection, so elements added to, removed from or replaced into
+ * target are always seen. Previous selections are kept while target holds the same elements.
+ * <p>When refinement is enabled by {@link #setRefinement(boolean)} and the filter is extended, as
+ * when typing one more character, only the previous matches are tested again. Selections of
+ * recent filters can also be cached, to be reused when a previous filter is set again; see
+ * {@link #setCacheBudget(int)}. Both reuse the results of {@link Searchable#match(String)}, so
+ * {@link #invalidate()} must be called when the searchable fields of an element change.
  */
 public class PredicableList<T extends Searchable> {
+    private static final int[] NO_INDICES = new int[0];
+
     protected String filter = null;
     protected Iterable<T> target;
 
+    // Elements read from target, or null when target was not read yet
+    private Object[] items = null;
+    private boolean refinement = false;
+    // Positions of elements into items that match selectionFilter, or null when none was made
+    private int[] selection = null;
+    private int selectionSize = 0;
+    private String selectionFilter = null;
+    // Incremented when target is read again, so cached selections of previous reads are not used
+    private int targetVersion = 0;
+    private SelectionCache cache = null;
+
     public PredicableList(Iterable<T> target) {
         if (target == null) {
             throw new NullPointerException("target == null");
@@ -48,16 +72,46 @@ public class PredicableList<T extends Searchable> {
         return new PredicableList<>(result);
     }
 
+    /**
+     * Gets the estimated number of bytes used by cached selections.
+     *
+     * @return The number of bytes.
+     */
+    public int getCacheBytes() {
+        return cache == null ? 0 : cache.getBytes();
+    }
+
+    /**
+     * Gets the number of selections found into cache.
+     *
+     * @return The number of cache hits.
+     */
+    public int getCacheHits() {
+        return cache == null ? 0 : cache.getHits();
+    }
+
+    /**
+     * Gets the number of selections not found into cache.
+     *
+     * @return The number of cache misses.
+     */
+    public int getCacheMisses() {
+        return cache == null ? 0 : cache.getMisses();
+    }
+
     /**
      * Gets the selected elements from target.
+     * <p>The selection is made each time the returned sequence is iterated, using the filter and
+     * target current at that time.
      *
      * @return A sequence with selected elements.
      */
     public Iterable<T> getSelection() {
-        return Query.where(target, new Predicate<T>() {
+        return new QueryIterable<>(new Iterable<T>() {
             @Override
-            public boolean apply(T t) {
-                return t.match(filter);
+            public Iterator<T> iterator() {
+                select();
+                return new Selection<T>(items, selection, selectionSize).iterator();
             }
         });
     }
@@ -71,6 +125,49 @@ public class PredicableList<T extends Searchable> {
         return target;
     }
 
+    /**
+     * Discards the elements read from target and every selection made from them, so the next
+     * selection tests every element again.
+     * <p>Must be called when the searchable fields of an element of target change.
+     */
+    public void invalidate() {
+        items = null;
+        selection = null;
+        selectionSize = 0;
+        selectionFilter = null;
+        targetVersion++;
+    }
+
+    /**
+     * Enables caching of selections for recently used filters, up to specified memory budget.
+     * <p>Selections are kept as positions of elements, taking about 4 bytes per selected element.
+     * Least recently used selections are dropped when the budget is exceeded. Cached selections
+     * and counters are discarded by each call.
+     *
+     * @param bytes The maximum number of bytes estimated for cached selections, or zero to
+     *              disable caching.
+     */
+    public void setCacheBudget(int bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("bytes < 0");
+        }
+
+        cache = bytes == 0 ? null : new SelectionCache(bytes);
+    }
+
+    /**
+     * Enables testing only the elements of last selection when the filter is extended or equal to
+     * its filter.
+     * <p>Must only be enabled when each element that meets a filter also meets every prefix of
+     * it, as {@link Searchable#match(String)} does when looking up the filter into text fields.
+     *
+     * @param enabled True to refine selections; otherwise, false to test every element of target
+     *                for each selection.
+     */
+    public void setRefinement(boolean enabled) {
+        refinement = enabled;
+    }
+
     /**
      * Selects elements from target where the filter string can be found into its fields.
      *
@@ -87,5 +184,102 @@ public class PredicableList<T extends Searchable> {
      */
     public void setTarget(Iterable<T> target) {
         this.target = target;
+        invalidate();
+    }
+
+    // Tests the elements of last selection when filter extends its filter; otherwise, every one
+    private void select() {
+        read();
+        if (refinement && selection != null && filter != null && filter.equals(selectionFilter)) {
+            return;
+        }
+        if (cache != null && filter != null) {
+            final int[] cached = cache.get(filter, targetVersion);
+            if (cached != null) {
+                selection = cached;
+                selectionSize = cached.length;
+                selectionFilter = filter;
+                return;
+            }
+        }
+
+        final boolean refine = refinement && selection != null && filter != null
+                && selectionFilter != null && filter.startsWith(selectionFilter);
+        final int candidates = refine ? selectionSize : items.length;
+        int[] result = candidates == 0 ? NO_INDICES : new int[candidates];
+        final char[] normalized = filter == null ? null : SearchableUtil.normalize(filter);
+        int size = 0;
+        for (int i = 0; i < candidates; i++) {
+            final int position = refine ? selection[i] : i;
+            if (SearchableUtil.match((Searchable) items[position], filter, normalized)) {
+                result[size++] = position;
+            }
+        }
+        if (size == 0) {
+            result = NO_INDICES;
+        }
+        if (cache != null && filter != null) {
+            if (size < result.length) {
+                result = Arrays.copyOf(result, size);
+            }
+            cache.put(filter, targetVersion, result);
+        }
+
+        selection = result;
+        selectionSize = size;
+        selectionFilter = filter;
+    }
+
+    // Reads target, keeping previous selections when it still holds the same elements
+    private void read() {
+        final Object[] previous = items;
+        if (previous != null) {
+            int size = 0;
+            for (T item : target) {
+                if (size == previous.length || previous[size] != item) {
+                    size = -1;
+                    break;
+                }
+                size++;
+            }
+            if (size == previous.length) {
+                return;
+            }
+        }
+
+        invalidate();
+        items = Query.toList(target).toArray();
+    }
+
+    /**
+     * A read-only list of the elements of a selection.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class Selection<T> extends AbstractList<T> implements RandomAccess {
+        final Object[] items;
+        final int[] indices;
+        final int size;
+
+        Selection(Object[] items, int[] indices, int size) {
+            this.items = items;
+            this.indices = indices;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int location) {
+            if (location < 0 || location >= size) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            return (T) items[indices[location]];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
     }
 }
@@ -0,0 +1,101 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.android.internal.util.Predicate;
+import com.github.skarllot.android.skllib.Func2;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides a sequence of values projected from source elements, which filters can still test.
+ * <p>Filters and projections chained here keep track of the source element each value was
+ * projected from, so {@link #whereSource(Func2)} tests elements of type S. Filters on source
+ * elements are run before the projections right before them.
+ *
+ * @param <S> The type of source elements.
+ * @param <T> The type of elements.
+ */
+public class ProjectedQueryIterable<S, T> extends QueryIterable<T> {
+    final Pipeline<T> pipeline;
+
+    ProjectedQueryIterable(final Pipeline<T> pipeline) {
+        super(pipeline);
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Projects each element into a new form.
+     *
+     * @param selector An method to transform elements.
+     * @param <R>      The type of projected elements.
+     * @return An iterable object that returns projected elements.
+     */
+    @Override
+    public <R> ProjectedQueryIterable<S, R> select(
+            final Func2<R, T> selector
+    ) {
+        if (selector == null) {
+            throw new NullPointerException("selector == null");
+        }
+
+        return new ProjectedQueryIterable<>(pipeline.select(selector));
+    }
+
+    /**
+     * Filters the elements.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return An iterable object that returns filtered elements.
+     */
+    @Override
+    public ProjectedQueryIterable<S, T> where(
+            final Func2<Boolean, T> predicate
+    ) {
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return new ProjectedQueryIterable<>(pipeline.where(predicate));
+    }
+
+    /**
+     * Filters the elements.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return An iterable object that returns filtered elements.
+     */
+    @Override
+    public ProjectedQueryIterable<S, T> where(
+            final Predicate<T> predicate
+    ) {
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return new ProjectedQueryIterable<>(pipeline.where(predicate));
+    }
+
+    /**
+     * Filters the elements by testing the source elements they were projected from.
+     *
+     * @param predicate An method to determine whether a source element meets a condition.
+     * @return An iterable object that returns filtered elements.
+     */
+    public ProjectedQueryIterable<S, T> whereSource(
+            final Func2<Boolean, S> predicate
+    ) {
+        return Query.whereSource(this, predicate);
+    }
+
+    /**
+     * Filters the elements by testing the source elements they were projected from.
+     *
+     * @param predicate An method to determine whether a source element meets a condition.
+     * @return An iterable object that returns filtered elements.
+     */
+    public ProjectedQueryIterable<S, T> whereSource(
+            final Predicate<S> predicate
+    ) {
+        return Query.whereSource(this, predicate);
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.android.internal.util.Predicate;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * A sequence of values that pushes its elements to a consumer from a single loop.
+ * <p>No iterator object is created for the sequence itself, and no lookahead element is held, so
+ * null elements need no special handling.
+ *
+ * @param <T> The type of elements.
+ */
+interface Pushable<T> {
+    /**
+     * Pushes every element to a consumer until it asks to stop.
+     *
+     * @param consumer An method that receives each element and returns whether to continue.
+     * @return True whether every element was pushed; otherwise, false.
+     */
+    boolean forEachWhile(Predicate<? super T> consumer);
+}
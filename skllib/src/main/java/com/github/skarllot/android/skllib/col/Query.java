@@ -3,13 +3,17 @@ package com.github.skarllot.android.skllib.col;
 import android.support.annotation.Nullable;
 
 import com.android.internal.util.Predicate;
+import com.github.skarllot.android.skllib.Action1;
 import com.github.skarllot.android.skllib.Func2;
+import com.github.skarllot.android.skllib.Func3;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
 
 // Authors:
 //  Fabrício Godoy <skarllot@gmail.com>, 2015.
@@ -19,6 +23,187 @@ import java.util.NoSuchElementException;
  */
 public final class Query {
 
+    /**
+     * Feeds several accumulators from a single pass over a sequence of values.
+     *
+     * @param input        An object that provides a sequence of values.
+     * @param accumulators The accumulators to add each element to.
+     * @param <T>          The type of elements.
+     */
+    @SafeVarargs
+    public static <T> void aggregate(
+            final Iterable<T> input,
+            final Accumulator<? super T, ?>... accumulators
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (accumulators == null) {
+            throw new NullPointerException("accumulators == null");
+        }
+
+        push(input, new Predicate<T>() {
+            @Override
+            public boolean apply(T item) {
+                for (Accumulator<? super T, ?> accumulator : accumulators) {
+                    accumulator.add(item);
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Determines whether every element meets a condition.
+     * <p>Stops reading input at the first element that fails the condition.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param predicate An method to determine whether an element meets a condition.
+     * @param <T>       The type of elements.
+     * @return True whether no element fails the condition; otherwise, false.
+     */
+    public static <T> boolean all(
+            final Iterable<T> input,
+            final Func2<Boolean, T> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return Pipeline.of(input).all(predicate);
+    }
+
+    /**
+     * Determines whether every element meets a condition.
+     * <p>Stops reading input at the first element that fails the condition.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param predicate An method to determine whether an element meets a condition.
+     * @param <T>       The type of elements.
+     * @return True whether no element fails the condition; otherwise, false.
+     */
+    public static <T> boolean all(
+            final Iterable<T> input,
+            final Predicate<T> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return Pipeline.of(input).all(predicate);
+    }
+
+    /**
+     * Determines whether a sequence of values contains any element.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param <T>   The type of elements.
+     * @return True whether an element was found; otherwise, false.
+     */
+    public static <T> boolean any(final Iterable<T> input) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+
+        return Pipeline.of(input).any(null);
+    }
+
+    /**
+     * Determines whether any element meets a condition.
+     * <p>Stops reading input at the first element that meets the condition.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param predicate An method to determine whether an element meets a condition.
+     * @param <T>       The type of elements.
+     * @return True whether an element was found; otherwise, false.
+     */
+    public static <T> boolean any(
+            final Iterable<T> input,
+            final Func2<Boolean, T> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return Pipeline.of(input).any(predicate);
+    }
+
+    /**
+     * Determines whether any element meets a condition.
+     * <p>Stops reading input at the first element that meets the condition.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param predicate An method to determine whether an element meets a condition.
+     * @param <T>       The type of elements.
+     * @return True whether an element was found; otherwise, false.
+     */
+    public static <T> boolean any(
+            final Iterable<T> input,
+            final Predicate<T> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return Pipeline.of(input).any(predicate);
+    }
+
+    /**
+     * Returns an iterable object over a list known to be sorted by specified comparator.
+     * <p>The list is not sorted nor copied and its ordering is not checked.
+     *
+     * @param list       A list of values sorted by comparator.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param <T>        The type of elements.
+     * @return An iterable object whose lookups run a binary search.
+     */
+    public static <T> SortedQueryIterable<T> asSorted(
+            final List<T> list,
+            final Comparator<T> comparator
+    ) {
+        return asSorted(list, comparator, false);
+    }
+
+    /**
+     * Returns an iterable object over a list known to be sorted by specified comparator.
+     * <p>The list is not sorted nor copied. When checked, every element is compared to the
+     * previous one, taking linear time; pass the {@code BuildConfig.DEBUG} of the application
+     * to check its ordering on debug builds only.
+     *
+     * @param list       A list of values sorted by comparator.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param checked    True to check the ordering of list; otherwise, false.
+     * @param <T>        The type of elements.
+     * @return An iterable object whose lookups run a binary search.
+     * @throws IllegalArgumentException When checked and list is not sorted by comparator.
+     */
+    public static <T> SortedQueryIterable<T> asSorted(
+            final List<T> list,
+            final Comparator<T> comparator,
+            final boolean checked
+    ) {
+        if (list == null) {
+            throw new NullPointerException("list == null");
+        }
+        if (comparator == null) {
+            throw new NullPointerException("comparator == null");
+        }
+
+        return new SortedQueryIterable<>(list, comparator, checked);
+    }
+
     /**
      * Returns the element at specified position.
      *
@@ -40,11 +225,15 @@ public final class Query {
             throw new IndexOutOfBoundsException();
         }
 
-        if (input instanceof List) {
-            return ((List<T>) input).get(position);
+        final Iterable<T> source = unwrap(input);
+        if (source instanceof List) {
+            return ((List<T>) source).get(position);
+        }
+        if (source instanceof Pipeline && ((Pipeline<T>) source).isIndexed()) {
+            return ((Pipeline<T>) source).get(position);
         }
 
-        final Iterator<T> iterator = input.iterator();
+        final Iterator<T> iterator = source.iterator();
         int i = 0;
         while (i != position) {
             if (!iterator.hasNext()) {
@@ -61,169 +250,1285 @@ public final class Query {
     }
 
     /**
-     * Returns the number of elements found.
+     * Groups consecutive elements into batches returned through a single reused list.
+     * <p>Only one batch is held in memory at a time. The returned list is read-only and its
+     * contents are replaced when iteration moves to the next batch, so it must be copied to be
+     * kept. The last batch may hold fewer elements.
      *
      * @param input An object that provides a sequence of values.
+     * @param size  The maximum number of elements of each batch.
      * @param <T>   The type of elements.
-     * @return The number of elements.
+     * @return An iterable object that returns batches of elements from input.
      */
-    public static <T> int count(final Iterable<T> input) {
-
-        int counter = 0;
-        for (T ignored : input) {
-            counter++;
+    public static <T> QueryIterable<List<T>> buffer(
+            final Iterable<T> input,
+            final int size
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("size < 1");
         }
 
-        return counter;
+        return new QueryIterable<List<T>>(
+                new BatchIterable<>(input, size, size, true, true));
     }
 
     /**
-     * Returns the difference of two sets.
+     * Returns an iterable object that memoizes elements from input as they are first read.
+     * <p>Input is read once, lazily, and every later or concurrent iteration replays the kept
+     * elements, so projections are not recomputed.
      *
-     * @param input      An object that provides a sequence of values.
-     * @param comparee   A sequence of values that must not occur on input.
-     * @param comparator A comparator to determine the ordering of two objects.
-     * @param <T>        The type of elements.
-     * @return An iterable object that returns the differential of elements from input and comparee.
+     * @param input An object that provides a sequence of values.
+     * @param <T>   The type of elements.
+     * @return An iterable object that returns memoized elements from input.
      */
-    public static <T> QueryIterable<T> except(
+    public static <T> QueryIterable<T> cache(final Iterable<T> input) {
+        return cache(input, -1);
+    }
+
+    /**
+     * Returns an iterable object that memoizes up to specified number of elements from input as
+     * they are first read.
+     * <p>Elements past the capacity are not kept, and iterations reaching them read input again,
+     * so a capacity cannot be set for input returned by {@link #once(Iterator)}.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param capacity The maximum number of elements to keep, or a negative number to keep all.
+     * @param <T>      The type of elements.
+     * @return An iterable object that returns memoized elements from input.
+     * @throws IllegalArgumentException When a capacity is set and input can be read only once.
+     */
+    public static <T> QueryIterable<T> cache(
             final Iterable<T> input,
-            final Iterable<T> comparee,
-            final Comparator<T> comparator
+            final int capacity
     ) {
         if (input == null) {
             throw new NullPointerException("input == null");
         }
-        if (comparee == null) {
-            throw new NullPointerException("comparee == null");
+
+        final Iterable<T> source = unwrap(input);
+        if (source instanceof CachedIterable || source instanceof Collection) {
+            return input instanceof QueryIterable
+                    ? (QueryIterable<T>) input : new QueryIterable<>(input);
         }
-        if (comparator == null) {
-            throw new NullPointerException("comparator == null");
+        if (capacity >= 0 && isOnce(source)) {
+            throw new IllegalArgumentException("input can only be read once");
         }
 
-        return new QueryIterable<>(
-                new ExceptIterable<>(input, comparee, comparator));
+        return new QueryIterable<T>(new CachedIterable<>(input, capacity));
     }
 
     /**
-     * Determines whether specified element exists into input elements.
+     * Groups consecutive elements into batches returned as new lists.
+     * <p>Elements are read lazily, one batch at a time. The last batch may hold fewer elements.
      *
-     * @param input      An object that provides a sequence of values.
-     * @param t          The element to look for.
-     * @param comparator A comparator to determine the ordering of two objects.
-     * @param <T>        The type of elements.
-     * @return True whether element was found; otherwise, false.
+     * @param input An object that provides a sequence of values.
+     * @param size  The maximum number of elements of each batch.
+     * @param <T>   The type of elements.
+     * @return An iterable object that returns batches of elements from input.
      */
-    @SuppressWarnings("unchecked")
-    public static <T> boolean exists(
+    public static <T> QueryIterable<List<T>> chunk(
             final Iterable<T> input,
-            final T t,
-            @Nullable Comparator<T> comparator
+            final int size
     ) {
         if (input == null) {
             throw new NullPointerException("input == null");
         }
-        if (t == null) {
-            throw new NullPointerException("t == null");
+        if (size < 1) {
+            throw new IllegalArgumentException("size < 1");
         }
-        if (comparator == null && !(t instanceof Comparator)) {
-            throw new UnsupportedOperationException("A comparator is needed when T do not implements Comparator");
+
+        return new QueryIterable<List<T>>(
+                new BatchIterable<>(input, size, size, false, true));
+    }
+
+    /**
+     * Returns the number of elements found.
+     * <p>Sequences of known size, such as collections and their projections, are not iterated.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param <T>   The type of elements.
+     * @return The number of elements.
+     */
+    public static <T> int count(final Iterable<T> input) {
+        if (input instanceof OrderedQueryIterable) {
+            return ((OrderedQueryIterable<T>) input).count();
         }
 
-        if (comparator == null) {
-            comparator = (Comparator<T>) t;
+        final Iterable<T> source = unwrap(input);
+        if (source instanceof Pipeline) {
+            return ((Pipeline<T>) source).count();
+        }
+        if (source instanceof Collection) {
+            return ((Collection<T>) source).size();
+        }
+        if (source instanceof CachedIterable && ((CachedIterable<T>) source).knownSize() >= 0) {
+            return ((CachedIterable<T>) source).knownSize();
         }
 
-        for (T item : input) {
-            if (comparator.compare(item, t) == 0) {
+        final int[] counter = {0};
+        push(source, new Predicate<T>() {
+            @Override
+            public boolean apply(T item) {
+                counter[0]++;
                 return true;
             }
+        });
+
+        return counter[0];
+    }
+
+    /**
+     * Starts counting the elements on a background thread.
+     * <p>The count is delivered on the main thread. Cancelling the returned task stops reading
+     * input and drops the result.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param executor The executor to run the query on.
+     * @param callback The callback to deliver the result to.
+     * @param <T>      The type of elements.
+     * @return The running task.
+     */
+    public static <T> QueryTask<Integer> countAsync(
+            final Iterable<T> input,
+            final Executor executor,
+            final QueryCallback<Integer> callback
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (executor == null) {
+            throw new NullPointerException("executor == null");
+        }
+        if (callback == null) {
+            throw new NullPointerException("callback == null");
         }
 
-        return false;
+        return QueryTask.count(input, executor, callback);
     }
 
     /**
-     * Returns the first element of a sequence of values.
+     * Returns distinct elements from a sequence of values.
+     * <p>Elements are returned lazily in input order, each at its first occurrence.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param comparer The comparer to test elements equality, or null to use
+     *                 {@link Object#equals(Object)} and {@link Object#hashCode()}.
+     * @param <T>      The type of elements.
+     * @return An iterable object that returns distinct elements from input.
+     */
+    public static <T> QueryIterable<T> distinct(
+            final Iterable<T> input,
+            @Nullable final EqualityComparer<T> comparer
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+
+        return new QueryIterable<>(
+                new DistinctIterable<>(input, null, comparer));
+    }
+
+    /**
+     * Returns distinct elements from a sequence of values using default equality.
      *
      * @param input An object that provides a sequence of values.
      * @param <T>   The type of elements.
-     * @return The first element if found; otherwise, null.
+     * @return An iterable object that returns distinct elements from input.
      */
-    @Nullable
-    public static <T> T firstOrNull(
+    public static <T> QueryIterable<T> distinct(
             final Iterable<T> input
+    ) {
+        return distinct(input, null);
+    }
+
+    /**
+     * Returns the difference of two sets, matching elements by a comparator.
+     * <p>The comparee elements are sorted once per iteration and looked up by binary search, so
+     * the comparator must impose a total ordering. An input element is dropped when it compares
+     * equal to any comparee element, whether or not they are equal by
+     * {@link Object#equals(Object)}.
+     *
+     * @param input      An object that provides a sequence of values.
+     * @param comparee   A sequence of values that must not occur on input.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param <T>        The type of elements.
+     * @return An iterable object that returns the differential of elements from input and comparee.
+     */
+    public static <T> QueryIterable<T> exceptOrdered(
+            final Iterable<T> input,
+            final Iterable<T> comparee,
+            final Comparator<T> comparator
     ) {
         if (input == null) {
             throw new NullPointerException("input == null");
         }
+        if (comparee == null) {
+            throw new NullPointerException("comparee == null");
+        }
+        if (comparator == null) {
+            throw new NullPointerException("comparator == null");
+        }
 
-        final Iterator<T> iterator = input.iterator();
-        if (iterator.hasNext())
-            return iterator.next();
-        else
-            return null;
+        return new QueryIterable<>(
+                new ExceptIterable<>(input, comparee, comparator, null, false));
     }
 
     /**
-     * Returns an iterable object that can be read once.
+     * Returns the difference of two sets.
+     * <p>The comparee elements are hashed once per iteration.
      *
-     * @param input An iterator that provides a sequence of values.
-     * @param <T>   The type of elements.
-     * @return An iterable object that returns a sequence of values.
+     * @param input    An object that provides a sequence of values.
+     * @param comparee A sequence of values that must not occur on input.
+     * @param comparer The comparer to test elements equality, or null to use
+     *                 {@link Object#equals(Object)} and {@link Object#hashCode()}.
+     * @param <T>      The type of elements.
+     * @return An iterable object that returns the differential of elements from input and comparee.
+     */
+    public static <T> QueryIterable<T> except(
+            final Iterable<T> input,
+            final Iterable<T> comparee,
+            @Nullable final EqualityComparer<T> comparer
+    ) {
+        return except(input, comparee, comparer, false);
+    }
+
+    /**
+     * Returns the difference of two sets.
+     * <p>The comparee elements are hashed once per iteration. When prefilter is set, a Bloom
+     * filter answers most misses without probing the hash table, which pays off when comparee is
+     * large and few input elements occur on it.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param comparee  A sequence of values that must not occur on input.
+     * @param comparer  The comparer to test elements equality, or null to use default equality.
+     * @param prefilter Whether a Bloom filter is built over comparee elements.
+     * @param <T>       The type of elements.
+     * @return An iterable object that returns the differential of elements from input and comparee.
+     */
+    public static <T> QueryIterable<T> except(
+            final Iterable<T> input,
+            final Iterable<T> comparee,
+            @Nullable final EqualityComparer<T> comparer,
+            final boolean prefilter
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (comparee == null) {
+            throw new NullPointerException("comparee == null");
+        }
+
+        return new QueryIterable<>(
+                new ExceptIterable<>(input, comparee, null, comparer, prefilter));
+    }
+
+    /**
+     * Returns the difference of two sets using default equality.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param comparee A sequence of values that must not occur on input.
+     * @param <T>      The type of elements.
+     * @return An iterable object that returns the differential of elements from input and comparee.
+     */
+    public static <T> QueryIterable<T> except(
+            final Iterable<T> input,
+            final Iterable<T> comparee
+    ) {
+        return except(input, comparee, null);
+    }
+
+    /**
+     * Returns the difference of two sorted sets.
+     * <p>Both sequences are walked side by side once, in linear time and constant memory. Elements
+     * of input are returned in order. Both sequences must be sorted by comparator, which is checked
+     * as they are walked.
+     *
+     * @param input      An object that provides a sorted sequence of values.
+     * @param comparee   A sorted sequence of values that must not occur on input.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param <T>        The type of elements.
+     * @return An iterable object that returns the differential of elements from input and comparee.
+     */
+    public static <T> QueryIterable<T> exceptSorted(
+            final Iterable<T> input,
+            final Iterable<T> comparee,
+            final Comparator<T> comparator
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (comparee == null) {
+            throw new NullPointerException("comparee == null");
+        }
+        if (comparator == null) {
+            throw new NullPointerException("comparator == null");
+        }
+
+        return new QueryIterable<>(
+                new SortedMergeIterable<>(input, comparee, comparator, SortedMergeIterable.EXCEPT));
+    }
+
+    /**
+     * Determines whether specified element exists into input elements.
+     * <p>Runs a binary search when input is a {@link SortedQueryIterable} sorted by comparator.
+     *
+     * @param input      An object that provides a sequence of values.
+     * @param t          The element to look for.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param <T>        The type of elements.
+     * @return True whether element was found; otherwise, false.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> boolean exists(
+            final Iterable<T> input,
+            final T t,
+            @Nullable Comparator<T> comparator
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (t == null) {
+            throw new NullPointerException("t == null");
+        }
+        if (input instanceof SortedQueryIterable) {
+            return ((SortedQueryIterable<T>) input).exists(t, comparator);
+        }
+        if (comparator == null && !(t instanceof Comparator)) {
+            throw new UnsupportedOperationException("A comparator is needed when T do not implements Comparator");
+        }
+
+        if (comparator == null) {
+            comparator = (Comparator<T>) t;
+        }
+
+        final Iterable<T> source = unwrap(input);
+        if (source instanceof Pipeline) {
+            return ((Pipeline<T>) source).exists(t, comparator);
+        }
+
+        for (T item : source) {
+            if (comparator.compare(item, t) == 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Describes how a sequence of values is run, one operator per line from source to result.
+     * <p>Stages are listed as planned, after filters were pushed down and merged.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param <T>   The type of elements.
+     * @return A text describing the planned operators.
+     */
+    public static <T> String explain(final Iterable<T> input) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+
+        return Pipeline.of(input).explain();
+    }
+
+    /**
+     * Returns the first element of a sequence of values.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param <T>   The type of elements.
+     * @return The first element if found; otherwise, null.
+     */
+    @Nullable
+    public static <T> T firstOrNull(
+            final Iterable<T> input
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (input instanceof OrderedQueryIterable) {
+            return ((OrderedQueryIterable<T>) input).firstOrNull();
+        }
+
+        final Iterable<T> source = unwrap(input);
+        if (source instanceof Pipeline) {
+            return ((Pipeline<T>) source).firstOrNull();
+        }
+
+        final Iterator<T> iterator = source.iterator();
+        if (iterator.hasNext())
+            return iterator.next();
+        else
+            return null;
+    }
+
+    /**
+     * Returns the first element that meets a condition.
+     * <p>Runs as a single scan that stops at the first match.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param predicate An method to determine whether an element meets a condition.
+     * @param <T>       The type of elements.
+     * @return The first matching element if found; otherwise, null.
+     */
+    @Nullable
+    public static <T> T firstOrNull(
+            final Iterable<T> input,
+            final Func2<Boolean, T> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+        if (input instanceof OrderedQueryIterable) {
+            return ((OrderedQueryIterable<T>) input).firstOrNull(predicate);
+        }
+
+        return Pipeline.of(input).where(predicate).firstOrNull();
+    }
+
+    /**
+     * Returns the first element that meets a condition.
+     * <p>Runs as a single scan that stops at the first match.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param predicate An method to determine whether an element meets a condition.
+     * @param <T>       The type of elements.
+     * @return The first matching element if found; otherwise, null.
+     */
+    @Nullable
+    public static <T> T firstOrNull(
+            final Iterable<T> input,
+            final Predicate<T> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+        if (input instanceof OrderedQueryIterable) {
+            return ((OrderedQueryIterable<T>) input).firstOrNull(predicate);
+        }
+
+        return Pipeline.of(input).where(predicate).firstOrNull();
+    }
+
+    /**
+     * Performs an action for each element.
+     * <p>Elements are pushed from a single loop, so no iterator is created for query stages.
+     *
+     * @param input  An object that provides a sequence of values.
+     * @param action An method to run for each element.
+     * @param <T>    The type of elements.
+     */
+    public static <T> void forEach(
+            final Iterable<T> input,
+            final Action1<T> action
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (action == null) {
+            throw new NullPointerException("action == null");
+        }
+
+        push(input, new Predicate<T>() {
+            @Override
+            public boolean apply(T item) {
+                action.call(item);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Performs an action for each element while it asks to continue.
+     * <p>Elements are pushed from a single loop, so no iterator is created for query stages.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param consumer An method that receives each element and returns whether to continue.
+     * @param <T>      The type of elements.
+     * @return True whether every element was consumed; otherwise, false.
+     */
+    public static <T> boolean forEachWhile(
+            final Iterable<T> input,
+            final Func2<Boolean, T> consumer
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (consumer == null) {
+            throw new NullPointerException("consumer == null");
+        }
+
+        return push(input, new Predicate<T>() {
+            @Override
+            public boolean apply(T item) {
+                return consumer.call(item);
+            }
+        });
+    }
+
+    /**
+     * Performs an action for each element while it asks to continue.
+     * <p>Elements are pushed from a single loop, so no iterator is created for query stages.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param consumer An method that receives each element and returns whether to continue.
+     * @param <T>      The type of elements.
+     * @return True whether every element was consumed; otherwise, false.
+     */
+    public static <T> boolean forEachWhile(
+            final Iterable<T> input,
+            final Predicate<T> consumer
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (consumer == null) {
+            throw new NullPointerException("consumer == null");
+        }
+
+        return push(input, consumer);
+    }
+
+    /**
+     * Groups the elements by key.
+     * <p>The whole input is read into a hash table when iteration starts. Groups are returned
+     * in the order their keys were first found, and elements keep their order into each group.
+     *
+     * @param input       An object that provides a sequence of values.
+     * @param keySelector An method to extract the key of each element.
+     * @param <K>         The type of keys.
+     * @param <T>         The type of elements.
+     * @return An iterable object that returns a group for each distinct key.
+     */
+    public static <K, T> QueryIterable<Grouping<K, T>> groupBy(
+            final Iterable<T> input,
+            final Func2<K, T> keySelector
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (keySelector == null) {
+            throw new NullPointerException("keySelector == null");
+        }
+
+        return new QueryIterable<>(
+                new GroupByIterable<>(input, keySelector));
+    }
+
+    /**
+     * Builds a hash index over the elements of a sequence of values.
+     * <p>Input is read once, right away, and later lookups by key take constant time.
+     *
+     * @param input       An object that provides a sequence of values.
+     * @param keySelector An method to extract the key of each element.
+     * @param <K>         The type of keys.
+     * @param <T>         The type of elements.
+     * @return An index of input elements by key.
+     */
+    public static <K, T> KeyIndex<K, T> index(
+            final Iterable<T> input,
+            final Func2<K, T> keySelector
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (keySelector == null) {
+            throw new NullPointerException("keySelector == null");
+        }
+
+        return new KeyIndex<>(HashIndex.build(input, keySelector, false));
+    }
+
+    /**
+     * Returns the intersection of two sets.
+     * <p>Distinct elements of input that occur on other are returned lazily in input order. The
+     * other elements are hashed once per iteration. When prefilter is set, a Bloom filter answers
+     * most misses without probing the hash table, which pays off when other is large and few
+     * input elements occur on it.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param other     A sequence of values that must occur on input.
+     * @param comparer  The comparer to test elements equality, or null to use default equality.
+     * @param prefilter Whether a Bloom filter is built over other elements.
+     * @param <T>       The type of elements.
+     * @return An iterable object that returns the elements common to input and other.
+     */
+    public static <T> QueryIterable<T> intersect(
+            final Iterable<T> input,
+            final Iterable<T> other,
+            @Nullable final EqualityComparer<T> comparer,
+            final boolean prefilter
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (other == null) {
+            throw new NullPointerException("other == null");
+        }
+
+        return new QueryIterable<>(
+                new IntersectIterable<>(input, other, comparer, prefilter));
+    }
+
+    /**
+     * Returns the intersection of two sets.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param other    A sequence of values that must occur on input.
+     * @param comparer The comparer to test elements equality, or null to use default equality.
+     * @param <T>      The type of elements.
+     * @return An iterable object that returns the elements common to input and other.
+     */
+    public static <T> QueryIterable<T> intersect(
+            final Iterable<T> input,
+            final Iterable<T> other,
+            @Nullable final EqualityComparer<T> comparer
+    ) {
+        return intersect(input, other, comparer, false);
+    }
+
+    /**
+     * Returns the intersection of two sets using default equality.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param other A sequence of values that must occur on input.
+     * @param <T>   The type of elements.
+     * @return An iterable object that returns the elements common to input and other.
+     */
+    public static <T> QueryIterable<T> intersect(
+            final Iterable<T> input,
+            final Iterable<T> other
+    ) {
+        return intersect(input, other, null, false);
+    }
+
+    /**
+     * Returns the intersection of two sorted sets.
+     * <p>Both sequences are walked side by side once, in linear time and constant memory. Distinct
+     * common elements are returned in order. Both sequences must be sorted by comparator, which is
+     * checked as they are walked.
+     *
+     * @param input      An object that provides a sorted sequence of values.
+     * @param other      A sorted sequence of values that must occur on input.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param <T>        The type of elements.
+     * @return An iterable object that returns the elements common to input and other.
+     */
+    public static <T> QueryIterable<T> intersectSorted(
+            final Iterable<T> input,
+            final Iterable<T> other,
+            final Comparator<T> comparator
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (other == null) {
+            throw new NullPointerException("other == null");
+        }
+        if (comparator == null) {
+            throw new NullPointerException("comparator == null");
+        }
+
+        return new QueryIterable<>(
+                new SortedMergeIterable<>(input, other, comparator, SortedMergeIterable.INTERSECT));
+    }
+
+    /**
+     * Correlates the elements of two sequences based on matching keys.
+     * <p>A hash table is built over the inner sequence and the outer sequence is streamed lazily,
+     * so results follow the order of outer elements and, for each one, the order of its matching
+     * inner elements. Elements with null keys never match.
+     *
+     * @param outer          The first sequence to join.
+     * @param inner          The sequence to join to the first sequence.
+     * @param outerKey       An method to extract the join key from elements of first sequence.
+     * @param innerKey       An method to extract the join key from elements of second sequence.
+     * @param resultSelector An method to create a result from two matching elements.
+     * @param <TOuter>       The type of elements of first sequence.
+     * @param <TInner>       The type of elements of second sequence.
+     * @param <K>            The type of keys.
+     * @param <R>            The type of results.
+     * @return An iterable object that returns a result for each pair of matching elements.
+     */
+    public static <TOuter, TInner, K, R> QueryIterable<R> join(
+            final Iterable<TOuter> outer,
+            final Iterable<TInner> inner,
+            final Func2<K, TOuter> outerKey,
+            final Func2<K, TInner> innerKey,
+            final Func3<R, TOuter, TInner> resultSelector
+    ) {
+        if (outer == null) {
+            throw new NullPointerException("outer == null");
+        }
+        if (inner == null) {
+            throw new NullPointerException("inner == null");
+        }
+        if (outerKey == null) {
+            throw new NullPointerException("outerKey == null");
+        }
+        if (innerKey == null) {
+            throw new NullPointerException("innerKey == null");
+        }
+        if (resultSelector == null) {
+            throw new NullPointerException("resultSelector == null");
+        }
+
+        return new QueryIterable<>(
+                new JoinIterable<>(outer, inner, outerKey, innerKey, resultSelector));
+    }
+
+    /**
+     * Materializes a query over an {@link ObservableList} and keeps it up to date.
+     * <p>Input must be built only by where and select calls over an observable list. Each change
+     * of the list then runs those stages over the changed element only.
+     *
+     * @param input A sequence of values that filters and projects an observable list.
+     * @param <T>   The type of elements.
+     * @return A live result of input.
+     * @throws IllegalArgumentException When input is not a where and select chain over an
+     *                                  observable list.
+     */
+    public static <T> LiveQueryIterable<T> live(
+            final Iterable<T> input
+    ) throws IllegalArgumentException {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+
+        final Pipeline<T> pipeline = Pipeline.of(input);
+        // A narrowed range reads a view of the list instead of the list itself
+        if (!(pipeline.source instanceof ObservableList)
+                || pipeline.isStateful()
+                || pipeline.source() != pipeline.source) {
+            throw new IllegalArgumentException(
+                    "input must only filter and project an ObservableList");
+        }
+
+        return new LiveQueryIterable<>(pipeline);
+    }
+
+    /**
+     * Returns the number of elements of a sequence when it can be determined without iterating.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param <T>   The type of elements.
+     * @return The number of elements if known; otherwise, -1.
+     */
+    static <T> int knownSize(final Iterable<T> input) {
+        final Iterable<T> source = unwrap(input);
+        if (source instanceof Pipeline) {
+            return ((Pipeline<T>) source).knownSize();
+        }
+        if (source instanceof Collection) {
+            return ((Collection<T>) source).size();
+        }
+        if (source instanceof CachedIterable) {
+            return ((CachedIterable<T>) source).knownSize();
+        }
+
+        return -1;
+    }
+
+    /**
+     * Pushes every element of a sequence of values to a consumer until it asks to stop.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param consumer An method that receives each element and returns whether to continue.
+     * @param <T>      The type of elements.
+     * @return True whether every element was pushed; otherwise, false.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> boolean push(final Iterable<T> input, final Predicate<? super T> consumer) {
+        final Iterable<T> source = unwrap(input);
+        if (source instanceof Pushable) {
+            return ((Pushable<T>) source).forEachWhile(consumer);
+        }
+
+        for (T item : source) {
+            if (!consumer.apply(item)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Determines whether a sequence is read from an iterator returned by {@link #once(Iterator)}.
+     *
+     * @param input An object that provides a sequence of values.
+     * @return True whether input can be read only once; otherwise, false.
+     */
+    static boolean isOnce(final Iterable<?> input) {
+        Iterable<?> source = unwrap(input);
+        while (source instanceof Pipeline) {
+            source = ((Pipeline<?>) source).source;
+        }
+
+        return source instanceof OnceIterable;
+    }
+
+    /**
+     * Returns the sequence of values backing a QueryIterable.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param <T>   The type of elements.
+     * @return The backing sequence when input is a QueryIterable; otherwise, input itself.
+     */
+    static <T> Iterable<T> unwrap(final Iterable<T> input) {
+        if (input instanceof QueryIterable) {
+            return ((QueryIterable<T>) input).getIterable();
+        }
+
+        return input;
+    }
+
+    /**
+     * Returns an iterable object that can be read once.
+     *
+     * @param input An iterator that provides a sequence of values.
+     * @param <T>   The type of elements.
+     * @return An iterable object that returns a sequence of values.
+     */
+    public static <T> QueryIterable<T> once(
+            final Iterator<T> input
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+
+        return new QueryIterable<>(new OnceIterable<>(input));
+    }
+
+    /**
+     * Sorts the elements by specified comparator.
+     * <p>The sort is lazy and stable: it runs when iteration starts and elements that compare
+     * equal keep their original order.
+     *
+     * @param input      An object that provides a sequence of values.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param <T>        The type of elements.
+     * @return An iterable object that returns sorted elements from input.
+     */
+    public static <T> OrderedQueryIterable<T> orderBy(
+            final Iterable<T> input,
+            final Comparator<T> comparator
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (comparator == null) {
+            throw new NullPointerException("comparator == null");
+        }
+
+        return new OrderedQueryIterable<>(unwrap(input), comparator);
+    }
+
+    /**
+     * Returns an iterable object whose queries run on several threads.
+     *
+     * @param input       An object that provides a sequence of values.
+     * @param executor    The executor to run ranges of input on.
+     * @param parallelism The maximum number of ranges to split input into.
+     * @param <T>         The type of elements.
+     * @return An iterable object that runs queries in parallel.
+     */
+    public static <T> ParallelQueryIterable<T> parallel(
+            final Iterable<T> input,
+            final Executor executor,
+            final int parallelism
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (executor == null) {
+            throw new NullPointerException("executor == null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1");
+        }
+
+        return new ParallelQueryIterable<>(Pipeline.of(input), executor, parallelism);
+    }
+
+    /**
+     * Returns an iterable object whose queries run on as many threads as available processors.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param executor The executor to run ranges of input on.
+     * @param <T>      The type of elements.
+     * @return An iterable object that runs queries in parallel.
+     */
+    public static <T> ParallelQueryIterable<T> parallel(
+            final Iterable<T> input,
+            final Executor executor
+    ) {
+        return parallel(input, executor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Projects the elements into a new type.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param selector An method to transform elements.
+     * @param <T>      The type of elements.
+     * @param <R>      The type of projected elements.
+     * @return An iterable object that returns projected elements from input.
+     */
+    public static <T, R> ProjectedQueryIterable<T, R> select(
+            final Iterable<T> input,
+            final Func2<R, T> selector
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (selector == null) {
+            throw new NullPointerException("selector == null");
+        }
+
+        return new ProjectedQueryIterable<>(
+                Pipeline.ofSource(input).select(selector));
+    }
+
+    /**
+     * Bypasses a number of elements and returns the remaining ones.
+     * <p>When input is a list that is only projected, the skipped elements are not read at all.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param count The number of elements to skip.
+     * @param <T>   The type of elements.
+     * @return An iterable object that returns the elements after the skipped ones.
+     */
+    public static <T> QueryIterable<T> skip(
+            final Iterable<T> input,
+            final int count
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+
+        return new QueryIterable<>(Pipeline.of(input).skip(count));
+    }
+
+    /**
+     * Bypasses elements while a condition is met and returns the remaining ones.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param predicate An method to determine whether an element meets a condition.
+     * @param <T>       The type of elements.
+     * @return An iterable object that returns elements from the first one failing it.
+     */
+    public static <T> QueryIterable<T> skipWhile(
+            final Iterable<T> input,
+            final Func2<Boolean, T> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return new QueryIterable<>(Pipeline.of(input).skipWhile(predicate));
+    }
+
+    /**
+     * Bypasses elements while a condition is met and returns the remaining ones.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param predicate An method to determine whether an element meets a condition.
+     * @param <T>       The type of elements.
+     * @return An iterable object that returns elements from the first one failing it.
+     */
+    public static <T> QueryIterable<T> skipWhile(
+            final Iterable<T> input,
+            final Predicate<T> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return new QueryIterable<>(Pipeline.of(input).skipWhile(predicate));
+    }
+
+    /**
+     * Projects the elements into double values without boxing.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param selector An method to transform elements.
+     * @param <T>      The type of elements.
+     * @return A query that returns projected values from input.
+     */
+    public static <T> DoubleQuery<T> selectDouble(
+            final Iterable<T> input,
+            final DoubleSelector<T> selector
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (selector == null) {
+            throw new NullPointerException("selector == null");
+        }
+
+        return new DoubleQuery<>(Pipeline.of(input), selector);
+    }
+
+    /**
+     * Projects the elements into int values without boxing.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param selector An method to transform elements.
+     * @param <T>      The type of elements.
+     * @return A query that returns projected values from input.
+     */
+    public static <T> IntQuery<T> selectInt(
+            final Iterable<T> input,
+            final IntSelector<T> selector
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (selector == null) {
+            throw new NullPointerException("selector == null");
+        }
+
+        return new IntQuery<>(Pipeline.of(input), selector);
+    }
+
+    /**
+     * Projects the elements into long values without boxing.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param selector An method to transform elements.
+     * @param <T>      The type of elements.
+     * @return A query that returns projected values from input.
+     */
+    public static <T> LongQuery<T> selectLong(
+            final Iterable<T> input,
+            final LongSelector<T> selector
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (selector == null) {
+            throw new NullPointerException("selector == null");
+        }
+
+        return new LongQuery<>(Pipeline.of(input), selector);
+    }
+
+    /**
+     * Returns a number of elements from the start of a sequence of values.
+     * <p>Input is not read anymore once enough elements are returned.
+     * <p>Sequences from {@link #orderBy} keep only the first elements while reading input,
+     * instead of sorting all of them.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param count The maximum number of elements to return.
+     * @param <T>   The type of elements.
+     * @return An iterable object that returns the first elements of input.
+     */
+    public static <T> QueryIterable<T> take(
+            final Iterable<T> input,
+            final int count
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (input instanceof OrderedQueryIterable) {
+            return ((OrderedQueryIterable<T>) input).take(count);
+        }
+
+        return new QueryIterable<>(Pipeline.of(input).take(count));
+    }
+
+    /**
+     * Returns elements while a condition is met.
+     * <p>Input is not read anymore after the first element failing the condition.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param predicate An method to determine whether an element meets a condition.
+     * @param <T>       The type of elements.
+     * @return An iterable object that returns the leading elements meeting the condition.
+     */
+    public static <T> QueryIterable<T> takeWhile(
+            final Iterable<T> input,
+            final Func2<Boolean, T> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return new QueryIterable<>(Pipeline.of(input).takeWhile(predicate));
+    }
+
+    /**
+     * Returns elements while a condition is met.
+     * <p>Input is not read anymore after the first element failing the condition.
+     *
+     * @param input     An object that provides a sequence of values.
+     * @param predicate An method to determine whether an element meets a condition.
+     * @param <T>       The type of elements.
+     * @return An iterable object that returns the leading elements meeting the condition.
+     */
+    public static <T> QueryIterable<T> takeWhile(
+            final Iterable<T> input,
+            final Predicate<T> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return new QueryIterable<>(Pipeline.of(input).takeWhile(predicate));
+    }
+
+    /**
+     * Returns a list from iterable object.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param <T>   The type of elements.
+     * @return A list from found elements.
+     */
+    public static <T> List<T> toList(final Iterable<T> input) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+
+        final Iterable<T> source = unwrap(input);
+        if (source instanceof Pipeline) {
+            return ((Pipeline<T>) source).toList();
+        }
+
+        final int size = knownSize(source);
+        final List<T> result = size >= 0 ? new ArrayList<T>(size) : new ArrayList<T>();
+        push(source, new Predicate<T>() {
+            @Override
+            public boolean apply(T item) {
+                result.add(item);
+                return true;
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Starts building a list from the elements on a background thread.
+     * <p>The list is delivered on the main thread. Cancelling the returned task stops reading
+     * input and drops the result.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param executor The executor to run the query on.
+     * @param callback The callback to deliver the result to.
+     * @param <T>      The type of elements.
+     * @return The running task.
      */
-    public static <T> QueryIterable<T> once(
-            final Iterator<T> input
+    public static <T> QueryTask<List<T>> toListAsync(
+            final Iterable<T> input,
+            final Executor executor,
+            final QueryCallback<List<T>> callback
     ) {
         if (input == null) {
             throw new NullPointerException("input == null");
         }
+        if (executor == null) {
+            throw new NullPointerException("executor == null");
+        }
+        if (callback == null) {
+            throw new NullPointerException("callback == null");
+        }
 
-        return new QueryIterable<>(new OnceIterable<>(input));
+        return QueryTask.toList(input, executor, callback);
     }
 
     /**
-     * Projects the elements into a new type.
+     * Returns the union of two sets.
+     * <p>Distinct elements of input and then of other are returned lazily, each at its first
+     * occurrence.
      *
      * @param input    An object that provides a sequence of values.
-     * @param selector An method to transform elements.
+     * @param other    A sequence of values to append to input.
+     * @param comparer The comparer to test elements equality, or null to use default equality.
      * @param <T>      The type of elements.
-     * @param <R>      The type of projected elements.
-     * @return An iterable object that returns projected elements from input.
+     * @return An iterable object that returns the distinct elements from input and other.
      */
-    public static <T, R> QueryIterable<R> select(
+    public static <T> QueryIterable<T> union(
             final Iterable<T> input,
-            final Func2<R, T> selector
+            final Iterable<T> other,
+            @Nullable final EqualityComparer<T> comparer
     ) {
         if (input == null) {
             throw new NullPointerException("input == null");
         }
-        if (selector == null) {
-            throw new NullPointerException("selector == null");
+        if (other == null) {
+            throw new NullPointerException("other == null");
         }
 
         return new QueryIterable<>(
-                new SelectIterable<>(input, selector));
+                new DistinctIterable<>(input, other, comparer));
     }
 
     /**
-     * Returns a list from iterable object.
+     * Returns the union of two sets using default equality.
      *
      * @param input An object that provides a sequence of values.
+     * @param other A sequence of values to append to input.
      * @param <T>   The type of elements.
-     * @return A list from found elements.
+     * @return An iterable object that returns the distinct elements from input and other.
      */
-    public static <T> List<T> toList(final Iterable<T> input) {
+    public static <T> QueryIterable<T> union(
+            final Iterable<T> input,
+            final Iterable<T> other
+    ) {
+        return union(input, other, null);
+    }
+
+    /**
+     * Returns the union of two sorted sets.
+     * <p>Both sequences are walked side by side once, in linear time and constant memory. Distinct
+     * elements are returned in order, taken from input when both have them. Both sequences must be
+     * sorted by comparator, which is checked as they are walked.
+     *
+     * @param input      An object that provides a sorted sequence of values.
+     * @param other      A sorted sequence of values to merge into input.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param <T>        The type of elements.
+     * @return An iterable object that returns the distinct elements from input and other.
+     */
+    public static <T> QueryIterable<T> unionSorted(
+            final Iterable<T> input,
+            final Iterable<T> other,
+            final Comparator<T> comparator
+    ) {
         if (input == null) {
             throw new NullPointerException("input == null");
         }
-
-        List<T> result = new ArrayList<>();
-        for (T item : input) {
-            result.add(item);
+        if (other == null) {
+            throw new NullPointerException("other == null");
+        }
+        if (comparator == null) {
+            throw new NullPointerException("comparator == null");
         }
 
-        return result;
+        return new QueryIterable<>(
+                new SortedMergeIterable<>(input, other, comparator, SortedMergeIterable.UNION));
     }
 
     /**
@@ -246,7 +1551,7 @@ public final class Query {
         }
 
         return new QueryIterable<>(
-                new WhereIterable<>(input, predicate));
+                Pipeline.of(input).where(predicate));
     }
 
     /**
@@ -261,16 +1566,207 @@ public final class Query {
             final Iterable<T> input,
             final Predicate<T> predicate
     ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
         if (predicate == null) {
             throw new NullPointerException("predicate == null");
         }
 
-        return where(input, new Func2<Boolean, T>() {
-            @Override
-            public Boolean call(T t) {
-                return predicate.apply(t);
+        return new QueryIterable<>(
+                Pipeline.of(input).where(predicate));
+    }
+
+    /**
+     * Filters the elements from iterable object by testing the elements it was projected from.
+     * <p>The predicate receives the elements read by the first projection that built input. It
+     * is run before the projections right before it, so they are not computed over rejected
+     * elements; it never runs ahead of other filters, skips or takes.
+     *
+     * @param input     A sequence of values projected from source elements.
+     * @param predicate An method to determine whether a source element meets a condition.
+     * @param <S>       The type of source elements.
+     * @param <T>       The type of elements.
+     * @return An iterable object that returns filtered elements from input.
+     */
+    public static <S, T> ProjectedQueryIterable<S, T> whereSource(
+            final ProjectedQueryIterable<S, T> input,
+            final Func2<Boolean, S> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return new ProjectedQueryIterable<>(
+                input.pipeline.whereSource(predicate));
+    }
+
+    /**
+     * Filters the elements from iterable object by testing the elements it was projected from.
+     * <p>The predicate receives the elements read by the first projection that built input. It
+     * is run before the projections right before it, so they are not computed over rejected
+     * elements; it never runs ahead of other filters, skips or takes.
+     *
+     * @param input     A sequence of values projected from source elements.
+     * @param predicate An method to determine whether a source element meets a condition.
+     * @param <S>       The type of source elements.
+     * @param <T>       The type of elements.
+     * @return An iterable object that returns filtered elements from input.
+     */
+    public static <S, T> ProjectedQueryIterable<S, T> whereSource(
+            final ProjectedQueryIterable<S, T> input,
+            final Predicate<S> predicate
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (predicate == null) {
+            throw new NullPointerException("predicate == null");
+        }
+
+        return new ProjectedQueryIterable<>(
+                input.pipeline.whereSource(predicate));
+    }
+
+    /**
+     * Returns sliding windows of consecutive elements through a single reused list.
+     * <p>Each window holds size elements and starts step elements after the previous one, so
+     * windows overlap when step is less than size and elements are skipped when it is greater.
+     * Only complete windows are returned. The returned list is read-only and its contents are
+     * replaced when iteration moves to the next window, so it must be copied to be kept.
+     *
+     * @param input An object that provides a sequence of values.
+     * @param size  The number of elements of each window.
+     * @param step  The number of elements between the starts of two windows.
+     * @param <T>   The type of elements.
+     * @return An iterable object that returns windows of elements from input.
+     */
+    public static <T> QueryIterable<List<T>> window(
+            final Iterable<T> input,
+            final int size,
+            final int step
+    ) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("size < 1");
+        }
+        if (step < 1) {
+            throw new IllegalArgumentException("step < 1");
+        }
+
+        return new QueryIterable<List<T>>(
+                new BatchIterable<>(input, size, step, true, false));
+    }
+
+    /**
+     * An Iterable type for distinct and union loops.
+     *
+     * @param <T> The type of elements.
+     */
+    private static class DistinctIterable<T> implements Iterable<T>, Pushable<T> {
+        final Iterable<T> first;
+        final Iterable<T> second;
+        final EqualityComparer<T> comparer;
+
+        public DistinctIterable(
+                Iterable<T> first,
+                @Nullable Iterable<T> second,
+                @Nullable EqualityComparer<T> comparer
+        ) {
+            this.first = first;
+            this.second = second;
+            this.comparer = comparer;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new DistinctIterator<>(
+                    first.iterator(),
+                    second == null ? null : second.iterator(),
+                    new OpenHashSet<>(-1, comparer));
+        }
+
+        @Override
+        public boolean forEachWhile(final Predicate<? super T> consumer) {
+            final OpenHashSet<T> seen = new OpenHashSet<>(-1, comparer);
+            final Predicate<T> sink = new Predicate<T>() {
+                @Override
+                public boolean apply(T item) {
+                    return !seen.add(item) || consumer.apply(item);
+                }
+            };
+
+            return push(first, sink) && (second == null || push(second, sink));
+        }
+    }
+
+    /**
+     * An iterator for distinct and union loops.
+     *
+     * @param <T> The type of elements
+     */
+    private static class DistinctIterator<T> implements Iterator<T> {
+        final OpenHashSet<T> seen;
+        Iterator<T> iterator;
+        Iterator<T> pending;
+        T nextItem = null;
+        boolean hasNextItem = false;
+
+        public DistinctIterator(
+                Iterator<T> iterator,
+                @Nullable Iterator<T> pending,
+                OpenHashSet<T> seen
+        ) {
+            this.iterator = iterator;
+            this.pending = pending;
+            this.seen = seen;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNextItem)
+                return true;
+
+            while (true) {
+                while (iterator.hasNext()) {
+                    final T item = iterator.next();
+
+                    if (seen.add(item)) {
+                        nextItem = item;
+                        hasNextItem = true;
+                        return true;
+                    }
+                }
+
+                if (pending == null) {
+                    return false;
+                }
+                iterator = pending;
+                pending = null;
             }
-        });
+        }
+
+        @Override
+        public T next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final T item = nextItem;
+            nextItem = null;
+            hasNextItem = false;
+            return item;
+        }
+
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException();
+        }
     }
 
     /**
@@ -278,58 +1774,94 @@ public final class Query {
      *
      * @param <T> The type of elements.
      */
-    private static class ExceptIterable<T> implements Iterable<T> {
+    private static class ExceptIterable<T> implements Iterable<T>, Pushable<T> {
         final Iterable<T> iterable;
         final Iterable<T> comparee;
         final Comparator<T> comparator;
+        final EqualityComparer<T> comparer;
+        final boolean prefilter;
 
         public ExceptIterable(
                 Iterable<T> iterable,
                 Iterable<T> comparee,
-                Comparator<T> comparator
+                @Nullable Comparator<T> comparator,
+                @Nullable EqualityComparer<T> comparer,
+                boolean prefilter
         ) {
             this.iterable = iterable;
             this.comparee = comparee;
             this.comparator = comparator;
+            this.comparer = comparer;
+            this.prefilter = prefilter;
         }
 
         @Override
         public Iterator<T> iterator() {
-            return new ExceptIterator<>(iterable.iterator(), comparee, comparator);
+            return new ExceptIterator<>(iterable.iterator(), this);
+        }
+
+        @Override
+        public boolean forEachWhile(final Predicate<? super T> consumer) {
+            return push(iterable, new Predicate<T>() {
+                Lookup<T> lookup = null;
+
+                @Override
+                public boolean apply(T item) {
+                    if (lookup == null) {
+                        lookup = createLookup();
+                    }
+
+                    return lookup.contains(item) || consumer.apply(item);
+                }
+            });
+        }
+
+        /**
+         * Builds a lookup structure over comparee elements.
+         *
+         * @return A new lookup.
+         */
+        Lookup<T> createLookup() {
+            if (comparator != null) {
+                return Lookup.sorted(comparee, comparator);
+            }
+
+            return Lookup.hashed(comparee, comparer, prefilter);
         }
     }
 
     /**
      * An iterator for except loops.
+     * <p>The lookup over comparee elements is built on first access.
      *
      * @param <T> The type of elements
      */
     private static class ExceptIterator<T> implements Iterator<T> {
         final Iterator<T> iterator;
-        final Iterable<T> comparee;
-        final Comparator<T> comparator;
+        final ExceptIterable<T> parent;
+        Lookup<T> lookup = null;
         T nextItem = null;
+        boolean hasNextItem = false;
 
         public ExceptIterator(
                 Iterator<T> iterator,
-                Iterable<T> comparee,
-                Comparator<T> comparator
+                ExceptIterable<T> parent
         ) {
             this.iterator = iterator;
-            this.comparee = comparee;
-            this.comparator = comparator;
+            this.parent = parent;
         }
 
         @Override
         public boolean hasNext() {
-            if (nextItem != null)
+            if (hasNextItem)
                 return true;
 
             while (iterator.hasNext()) {
                 final T item = iterator.next();
 
-                if (!Query.exists(comparee, item, comparator)) {
+                if (!lookup().contains(item)) {
                     nextItem = item;
+                    hasNextItem = true;
                     return true;
                 }
             }
@@ -339,97 +1871,77 @@ public final class Query {
 
         @Override
         public T next() throws NoSuchElementException {
-            if (nextItem != null) {
-                final T item = nextItem;
-                nextItem = null;
-                return item;
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
 
-            while (iterator.hasNext()) {
-                final T item = iterator.next();
-                if (!Query.exists(comparee, item, comparator))
-                    return item;
-            }
-
-            throw new NoSuchElementException();
+            final T item = nextItem;
+            nextItem = null;
+            hasNextItem = false;
+            return item;
         }
 
         @Override
         public void remove() throws UnsupportedOperationException {
             throw new UnsupportedOperationException();
         }
-    }
-
-    /**
-     * An Iterable type for one-time loops.
-     *
-     * @param <T> The type of elements.
-     */
-    private static class OnceIterable<T> implements Iterable<T> {
-        Iterator<T> iterator;
 
-        public OnceIterable(
-                Iterator<T> iterator
-        ) {
-            this.iterator = iterator;
-        }
+        private Lookup<T> lookup() {
+            if (lookup == null) {
+                lookup = parent.createLookup();
+            }
 
-        @Override
-        public Iterator<T> iterator() {
-            final Iterator<T> copy = iterator;
-            iterator = null;
-            return copy;
+            return lookup;
         }
     }
 
     /**
-     * An Iterable type for projection loops.
+     * An Iterable type for grouping loops.
      *
+     * @param <K> The type of keys.
      * @param <T> The type of elements.
-     * @param <R> The type of projected elements.
      */
-    private static class SelectIterable<T, R> implements Iterable<R> {
+    private static class GroupByIterable<K, T> implements Iterable<Grouping<K, T>> {
         final Iterable<T> iterable;
-        final Func2<R, T> selector;
+        final Func2<K, T> keySelector;
 
-        public SelectIterable(Iterable<T> iterable, Func2<R, T> selector) {
+        public GroupByIterable(Iterable<T> iterable, Func2<K, T> keySelector) {
             this.iterable = iterable;
-            this.selector = selector;
+            this.keySelector = keySelector;
         }
 
         @Override
-        public Iterator<R> iterator() {
-            return new SelectIterator<>(iterable.iterator(), selector);
+        public Iterator<Grouping<K, T>> iterator() {
+            return new GroupByIterator<>(HashIndex.build(iterable, keySelector, false));
         }
     }
 
     /**
-     * An iterator for projection loops.
+     * An iterator for grouping loops.
      *
+     * @param <K> The type of keys.
      * @param <T> The type of elements
-     * @param <R> The type of projected elements.
      */
-    private static class SelectIterator<T, R> implements Iterator<R> {
-        final Iterator<T> iterator;
-        final Func2<R, T> selector;
+    private static class GroupByIterator<K, T> implements Iterator<Grouping<K, T>> {
+        final HashIndex<K, T> index;
+        int group = 0;
 
-        public SelectIterator(Iterator<T> iterator, Func2<R, T> selector) {
-            this.iterator = iterator;
-            this.selector = selector;
+        public GroupByIterator(HashIndex<K, T> index) {
+            this.index = index;
         }
 
         @Override
         public boolean hasNext() {
-            return iterator.hasNext();
+            return group < index.groupCount();
         }
 
         @Override
-        public R next() throws NoSuchElementException {
-            if (iterator.hasNext()) {
-                return selector.call(iterator.next());
+        public Grouping<K, T> next() throws NoSuchElementException {
+            if (group >= index.groupCount()) {
+                throw new NoSuchElementException();
             }
 
-            throw new NoSuchElementException();
+            return new Grouping<>(index, group++);
         }
 
         @Override
@@ -439,50 +1951,84 @@ public final class Query {
     }
 
     /**
-     * An Iterable type for filtered loops.
+     * An Iterable type for intersection loops.
      *
      * @param <T> The type of elements.
      */
-    private static class WhereIterable<T> implements Iterable<T> {
+    private static class IntersectIterable<T> implements Iterable<T>, Pushable<T> {
         final Iterable<T> iterable;
-        final Func2<Boolean, T> predicate;
+        final Iterable<T> other;
+        final EqualityComparer<T> comparer;
+        final boolean prefilter;
 
-        public WhereIterable(Iterable<T> iterable, Func2<Boolean, T> predicate) {
+        public IntersectIterable(
+                Iterable<T> iterable,
+                Iterable<T> other,
+                @Nullable EqualityComparer<T> comparer,
+                boolean prefilter
+        ) {
             this.iterable = iterable;
-            this.predicate = predicate;
+            this.other = other;
+            this.comparer = comparer;
+            this.prefilter = prefilter;
         }
 
         @Override
         public Iterator<T> iterator() {
-            return new WhereIterator<>(iterable.iterator(), predicate);
+            return new IntersectIterator<>(iterable.iterator(), this);
+        }
+
+        @Override
+        public boolean forEachWhile(final Predicate<? super T> consumer) {
+            return push(iterable, new Predicate<T>() {
+                OpenHashSet<T> pending = null;
+
+                @Override
+                public boolean apply(T item) {
+                    if (pending == null) {
+                        pending = OpenHashSet.from(other, comparer, prefilter);
+                    }
+
+                    return !pending.remove(item) || consumer.apply(item);
+                }
+            });
         }
     }
 
     /**
-     * An iterator for filtered loops.
+     * An iterator for intersection loops.
+     * <p>The hash set over other elements is built on first access, and each element is removed
+     * from it once returned.
      *
      * @param <T> The type of elements
      */
-    private static class WhereIterator<T> implements Iterator<T> {
+    private static class IntersectIterator<T> implements Iterator<T> {
         final Iterator<T> iterator;
-        final Func2<Boolean, T> predicate;
+        final IntersectIterable<T> parent;
+        OpenHashSet<T> pending = null;
         T nextItem = null;
+        boolean hasNextItem = false;
 
-        public WhereIterator(Iterator<T> iterator, Func2<Boolean, T> predicate) {
+        public IntersectIterator(Iterator<T> iterator, IntersectIterable<T> parent) {
             this.iterator = iterator;
-            this.predicate = predicate;
+            this.parent = parent;
         }
 
         @Override
         public boolean hasNext() {
-            if (nextItem != null)
+            if (hasNextItem)
                 return true;
 
+            if (pending == null) {
+                pending = OpenHashSet.from(parent.other, parent.comparer, parent.prefilter);
+            }
+
             while (iterator.hasNext()) {
                 final T item = iterator.next();
 
-                if (predicate.call(item)) {
+                if (pending.remove(item)) {
                     nextItem = item;
+                    hasNextItem = true;
                     return true;
                 }
             }
@@ -492,19 +2038,123 @@ public final class Query {
 
         @Override
         public T next() throws NoSuchElementException {
-            if (nextItem != null) {
-                final T item = nextItem;
-                nextItem = null;
-                return item;
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
 
-            while (iterator.hasNext()) {
-                final T item = iterator.next();
-                if (predicate.call(item))
-                    return item;
+            final T item = nextItem;
+            nextItem = null;
+            hasNextItem = false;
+            return item;
+        }
+
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * An Iterable type for join loops.
+     *
+     * @param <TOuter> The type of elements of first sequence.
+     * @param <TInner> The type of elements of second sequence.
+     * @param <K>      The type of keys.
+     * @param <R>      The type of results.
+     */
+    private static class JoinIterable<TOuter, TInner, K, R> implements Iterable<R> {
+        final Iterable<TOuter> outer;
+        final Iterable<TInner> inner;
+        final Func2<K, TOuter> outerKey;
+        final Func2<K, TInner> innerKey;
+        final Func3<R, TOuter, TInner> resultSelector;
+
+        public JoinIterable(
+                Iterable<TOuter> outer,
+                Iterable<TInner> inner,
+                Func2<K, TOuter> outerKey,
+                Func2<K, TInner> innerKey,
+                Func3<R, TOuter, TInner> resultSelector
+        ) {
+            this.outer = outer;
+            this.inner = inner;
+            this.outerKey = outerKey;
+            this.innerKey = innerKey;
+            this.resultSelector = resultSelector;
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            return new JoinIterator<>(this);
+        }
+    }
+
+    /**
+     * An iterator for join loops.
+     * <p>The hash table is built on first access.
+     *
+     * @param <TOuter> The type of elements of first sequence.
+     * @param <TInner> The type of elements of second sequence.
+     * @param <K>      The type of keys.
+     * @param <R>      The type of results.
+     */
+    private static class JoinIterator<TOuter, TInner, K, R> implements Iterator<R> {
+        final JoinIterable<TOuter, TInner, K, R> parent;
+        Iterator<TOuter> streamed = null;
+        HashIndex<K, TInner> index = null;
+        TOuter current = null;
+        int entry = -1;
+        R nextItem = null;
+        boolean hasNextItem = false;
+
+        public JoinIterator(JoinIterable<TOuter, TInner, K, R> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNextItem)
+                return true;
+
+            if (index == null) {
+                index = HashIndex.build(parent.inner, parent.innerKey, true);
+                streamed = parent.outer.iterator();
+            }
+
+            while (true) {
+                if (entry >= 0) {
+                    final TInner matched = index.value(entry);
+                    entry = index.next(entry);
+
+                    nextItem = parent.resultSelector.call(current, matched);
+                    hasNextItem = true;
+                    return true;
+                }
+
+                if (!streamed.hasNext()) {
+                    current = null;
+                    return false;
+                }
+
+                current = streamed.next();
+                final K key = parent.outerKey.call(current);
+                if (key != null) {
+                    final int group = index.find(key);
+                    entry = group < 0 ? -1 : index.first(group);
+                }
+            }
+        }
+
+        @Override
+        public R next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
 
-            throw new NoSuchElementException();
+            final R item = nextItem;
+            nextItem = null;
+            hasNextItem = false;
+            return item;
         }
 
         @Override
@@ -512,4 +2162,26 @@ public final class Query {
             throw new UnsupportedOperationException();
         }
     }
+
+    /**
+     * An Iterable type for one-time loops.
+     *
+     * @param <T> The type of elements.
+     */
+    private static class OnceIterable<T> implements Iterable<T> {
+        Iterator<T> iterator;
+
+        public OnceIterable(
+                Iterator<T> iterator
+        ) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            final Iterator<T> copy = iterator;
+            iterator = null;
+            return copy;
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package com.github.skarllot.android.skllib.col;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Defines the methods called on the main thread when an asynchronous query ends.
+ * <p>No method is called for a query cancelled before its result was delivered.
+ *
+ * @param <R> The type of result.
+ */
+public interface QueryCallback<R> {
+    /**
+     * Defines the method called when the query fails.
+     *
+     * @param e The exception thrown by the query.
+     */
+    void onError(RuntimeException e);
+
+    /**
+     * Defines the method called when the query completes.
+     *
+     * @param result The query result.
+     */
+    void onResult(R result);
+}
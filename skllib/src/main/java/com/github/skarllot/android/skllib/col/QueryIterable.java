@@ -3,11 +3,14 @@ package com.github.skarllot.android.skllib.col;
 import android.support.annotation.Nullable;
 
 import com.android.internal.util.Predicate;
+import com.github.skarllot.android.skllib.Action1;
 import com.github.skarllot.android.skllib.Func2;
+import com.github.skarllot.android.skllib.Func3;
 
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 // Authors:
 //  Fabrício Godoy <skarllot@gmail.com>, 2015.
@@ -24,6 +27,76 @@ public class QueryIterable<T> implements Iterable<T> {
         this.iterable = iterable;
     }
 
+    /**
+     * Feeds several accumulators from a single pass over current sequence.
+     *
+     * @param accumulators The accumulators to add each element to.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final void aggregate(
+            final Accumulator<? super T, ?>... accumulators
+    ) {
+        Query.aggregate(iterable, accumulators);
+    }
+
+    /**
+     * Determines whether every element meets a condition.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return True whether no element fails the condition; otherwise, false.
+     */
+    public boolean all(
+            final Func2<Boolean, T> predicate
+    ) {
+        return Query.all(iterable, predicate);
+    }
+
+    /**
+     * Determines whether every element meets a condition.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return True whether no element fails the condition; otherwise, false.
+     */
+    public boolean all(
+            final Predicate<T> predicate
+    ) {
+        return Query.all(iterable, predicate);
+    }
+
+    /**
+     * Determines whether current sequence contains any element.
+     *
+     * @return True whether an element was found; otherwise, false.
+     */
+    public boolean any() {
+        return Query.any(iterable);
+    }
+
+    /**
+     * Determines whether any element meets a condition.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return True whether an element was found; otherwise, false.
+     */
+    public boolean any(
+            final Func2<Boolean, T> predicate
+    ) {
+        return Query.any(iterable, predicate);
+    }
+
+    /**
+     * Determines whether any element meets a condition.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return True whether an element was found; otherwise, false.
+     */
+    public boolean any(
+            final Predicate<T> predicate
+    ) {
+        return Query.any(iterable, predicate);
+    }
+
     /**
      * Returns the element at specified position.
      *
@@ -36,6 +109,49 @@ public class QueryIterable<T> implements Iterable<T> {
         return Query.at(iterable, position);
     }
 
+    /**
+     * Groups consecutive elements into batches returned through a single reused list.
+     * <p>The returned list is replaced when iteration moves to the next batch.
+     *
+     * @param size The maximum number of elements of each batch.
+     * @return An iterable object that returns batches of elements.
+     */
+    public QueryIterable<List<T>> buffer(final int size) {
+        return Query.buffer(iterable, size);
+    }
+
+    /**
+     * Returns an iterable object that memoizes elements of current sequence as they are first read.
+     *
+     * @return An iterable object that returns memoized elements.
+     */
+    public QueryIterable<T> cache() {
+        return Query.cache(iterable);
+    }
+
+    /**
+     * Returns an iterable object that memoizes up to specified number of elements of current
+     * sequence as they are first read.
+     *
+     * @param capacity The maximum number of elements to keep, or a negative number to keep all.
+     * @return An iterable object that returns memoized elements.
+     * @throws IllegalArgumentException When a capacity is set and current sequence can be read
+     *                                  only once.
+     */
+    public QueryIterable<T> cache(final int capacity) {
+        return Query.cache(iterable, capacity);
+    }
+
+    /**
+     * Groups consecutive elements into batches returned as new lists.
+     *
+     * @param size The maximum number of elements of each batch.
+     * @return An iterable object that returns batches of elements.
+     */
+    public QueryIterable<List<T>> chunk(final int size) {
+        return Query.chunk(iterable, size);
+    }
+
     /**
      * Returns the number of elements found.
      *
@@ -46,17 +162,109 @@ public class QueryIterable<T> implements Iterable<T> {
     }
 
     /**
-     * Returns the difference of two sets.
+     * Starts counting the elements on a background thread.
+     *
+     * @param executor The executor to run the query on.
+     * @param callback The callback to deliver the result to on the main thread.
+     * @return The running task.
+     */
+    public QueryTask<Integer> countAsync(
+            final Executor executor,
+            final QueryCallback<Integer> callback
+    ) {
+        return Query.countAsync(iterable, executor, callback);
+    }
+
+    /**
+     * Returns distinct elements from current sequence.
+     *
+     * @param comparer The comparer to test elements equality, or null to use default equality.
+     * @return An iterable object that returns distinct elements.
+     */
+    public QueryIterable<T> distinct(
+            @Nullable final EqualityComparer<T> comparer
+    ) {
+        return Query.distinct(iterable, comparer);
+    }
+
+    /**
+     * Returns distinct elements from current sequence using default equality.
+     *
+     * @return An iterable object that returns distinct elements.
+     */
+    public QueryIterable<T> distinct() {
+        return Query.distinct(iterable);
+    }
+
+    /**
+     * Returns the difference of two sets, matching elements by a comparator.
+     * <p>The comparator must impose a total ordering.
      *
      * @param comparee   A sequence of values that must not occur on input.
      * @param comparator A comparator to determine the ordering of two objects.
      * @return An iterable object that returns the differential of elements from input and comparee.
      */
+    public QueryIterable<T> exceptOrdered(
+            final Iterable<T> comparee,
+            final Comparator<T> comparator
+    ) {
+        return Query.exceptOrdered(iterable, comparee, comparator);
+    }
+
+    /**
+     * Returns the difference of two sets.
+     *
+     * @param comparee A sequence of values that must not occur on input.
+     * @param comparer The comparer to test elements equality, or null to use default equality.
+     * @return An iterable object that returns the differential of elements from input and comparee.
+     */
     public QueryIterable<T> except(
+            final Iterable<T> comparee,
+            @Nullable final EqualityComparer<T> comparer
+    ) {
+        return Query.except(iterable, comparee, comparer);
+    }
+
+    /**
+     * Returns the difference of two sets.
+     *
+     * @param comparee  A sequence of values that must not occur on input.
+     * @param comparer  The comparer to test elements equality, or null to use default equality.
+     * @param prefilter Whether a Bloom filter is built over comparee elements.
+     * @return An iterable object that returns the differential of elements from input and comparee.
+     */
+    public QueryIterable<T> except(
+            final Iterable<T> comparee,
+            @Nullable final EqualityComparer<T> comparer,
+            final boolean prefilter
+    ) {
+        return Query.except(iterable, comparee, comparer, prefilter);
+    }
+
+    /**
+     * Returns the difference of two sets using default equality.
+     *
+     * @param comparee A sequence of values that must not occur on input.
+     * @return An iterable object that returns the differential of elements from input and comparee.
+     */
+    public QueryIterable<T> except(
+            final Iterable<T> comparee
+    ) {
+        return Query.except(iterable, comparee);
+    }
+
+    /**
+     * Returns the difference of two sorted sets.
+     *
+     * @param comparee   A sorted sequence of values that must not occur on current sequence.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @return An iterable object that returns the differential of elements.
+     */
+    public QueryIterable<T> exceptSorted(
             final Iterable<T> comparee,
             final Comparator<T> comparator
     ) {
-        return Query.except(iterable, comparee, comparator);
+        return Query.exceptSorted(iterable, comparee, comparator);
     }
 
     /**
@@ -73,11 +281,77 @@ public class QueryIterable<T> implements Iterable<T> {
         return Query.exists(iterable, t, comparator);
     }
 
+    /**
+     * Performs an action for each element, without creating an iterator for query stages.
+     *
+     * @param action An method to run for each element.
+     */
+    public void forEach(
+            final Action1<T> action
+    ) {
+        Query.forEach(iterable, action);
+    }
+
+    /**
+     * Performs an action for each element while it asks to continue.
+     *
+     * @param consumer An method that receives each element and returns whether to continue.
+     * @return True whether every element was consumed; otherwise, false.
+     */
+    public boolean forEachWhile(
+            final Func2<Boolean, T> consumer
+    ) {
+        return Query.forEachWhile(iterable, consumer);
+    }
+
+    /**
+     * Performs an action for each element while it asks to continue.
+     *
+     * @param consumer An method that receives each element and returns whether to continue.
+     * @return True whether every element was consumed; otherwise, false.
+     */
+    public boolean forEachWhile(
+            final Predicate<T> consumer
+    ) {
+        return Query.forEachWhile(iterable, consumer);
+    }
+
+    /**
+     * Groups the elements by key.
+     *
+     * @param keySelector An method to extract the key of each element.
+     * @param <K>         The type of keys.
+     * @return An iterable object that returns a group for each distinct key.
+     */
+    public <K> QueryIterable<Grouping<K, T>> groupBy(
+            final Func2<K, T> keySelector
+    ) {
+        return Query.groupBy(iterable, keySelector);
+    }
+
     @Override
     public Iterator<T> iterator() {
         return iterable.iterator();
     }
 
+    /**
+     * Gets the sequence of values backing this instance.
+     *
+     * @return The backing sequence.
+     */
+    Iterable<T> getIterable() {
+        return iterable;
+    }
+
+    /**
+     * Describes how current sequence is run, one operator per line from source to result.
+     *
+     * @return A text describing the planned operators.
+     */
+    public String explain() {
+        return Query.explain(iterable);
+    }
+
     /**
      * Returns the first element of a sequence of values.
      *
@@ -88,6 +362,171 @@ public class QueryIterable<T> implements Iterable<T> {
         return Query.firstOrNull(iterable);
     }
 
+    /**
+     * Returns the first element that meets a condition.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return The first matching element if found; otherwise, null.
+     */
+    @Nullable
+    public T firstOrNull(
+            final Func2<Boolean, T> predicate
+    ) {
+        return Query.firstOrNull(iterable, predicate);
+    }
+
+    /**
+     * Returns the first element that meets a condition.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return The first matching element if found; otherwise, null.
+     */
+    @Nullable
+    public T firstOrNull(
+            final Predicate<T> predicate
+    ) {
+        return Query.firstOrNull(iterable, predicate);
+    }
+
+    /**
+     * Builds a hash index over the elements of current sequence.
+     *
+     * @param keySelector An method to extract the key of each element.
+     * @param <K>         The type of keys.
+     * @return An index of elements by key.
+     */
+    public <K> KeyIndex<K, T> index(
+            final Func2<K, T> keySelector
+    ) {
+        return Query.index(iterable, keySelector);
+    }
+
+    /**
+     * Returns the intersection of two sets.
+     *
+     * @param other     A sequence of values that must occur on current sequence.
+     * @param comparer  The comparer to test elements equality, or null to use default equality.
+     * @param prefilter Whether a Bloom filter is built over other elements.
+     * @return An iterable object that returns the elements common to both sequences.
+     */
+    public QueryIterable<T> intersect(
+            final Iterable<T> other,
+            @Nullable final EqualityComparer<T> comparer,
+            final boolean prefilter
+    ) {
+        return Query.intersect(iterable, other, comparer, prefilter);
+    }
+
+    /**
+     * Returns the intersection of two sets.
+     *
+     * @param other    A sequence of values that must occur on current sequence.
+     * @param comparer The comparer to test elements equality, or null to use default equality.
+     * @return An iterable object that returns the elements common to both sequences.
+     */
+    public QueryIterable<T> intersect(
+            final Iterable<T> other,
+            @Nullable final EqualityComparer<T> comparer
+    ) {
+        return Query.intersect(iterable, other, comparer);
+    }
+
+    /**
+     * Returns the intersection of two sets using default equality.
+     *
+     * @param other A sequence of values that must occur on current sequence.
+     * @return An iterable object that returns the elements common to both sequences.
+     */
+    public QueryIterable<T> intersect(
+            final Iterable<T> other
+    ) {
+        return Query.intersect(iterable, other);
+    }
+
+    /**
+     * Returns the intersection of two sorted sets.
+     *
+     * @param other      A sorted sequence of values that must occur on current sequence.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @return An iterable object that returns the elements common to both sequences.
+     */
+    public QueryIterable<T> intersectSorted(
+            final Iterable<T> other,
+            final Comparator<T> comparator
+    ) {
+        return Query.intersectSorted(iterable, other, comparator);
+    }
+
+    /**
+     * Correlates the elements of two sequences based on matching keys.
+     *
+     * @param inner          The sequence to join to current sequence.
+     * @param outerKey       An method to extract the join key from elements of current sequence.
+     * @param innerKey       An method to extract the join key from elements of inner sequence.
+     * @param resultSelector An method to create a result from two matching elements.
+     * @param <TInner>       The type of elements of inner sequence.
+     * @param <K>            The type of keys.
+     * @param <R>            The type of results.
+     * @return An iterable object that returns a result for each pair of matching elements.
+     */
+    public <TInner, K, R> QueryIterable<R> join(
+            final Iterable<TInner> inner,
+            final Func2<K, T> outerKey,
+            final Func2<K, TInner> innerKey,
+            final Func3<R, T, TInner> resultSelector
+    ) {
+        return Query.join(iterable, inner, outerKey, innerKey, resultSelector);
+    }
+
+    /**
+     * Materializes current query over an {@link ObservableList} and keeps it up to date.
+     *
+     * @return A live result of current query.
+     * @throws IllegalArgumentException When current query is not a where and select chain over
+     *                                  an observable list.
+     */
+    public LiveQueryIterable<T> live() throws IllegalArgumentException {
+        return Query.live(iterable);
+    }
+
+    /**
+     * Sorts the elements by specified comparator.
+     *
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @return An iterable object that returns sorted elements.
+     */
+    public OrderedQueryIterable<T> orderBy(
+            final Comparator<T> comparator
+    ) {
+        return Query.orderBy(iterable, comparator);
+    }
+
+    /**
+     * Returns an iterable object whose queries run on several threads.
+     *
+     * @param executor The executor to run ranges of elements on.
+     * @return An iterable object that runs queries in parallel.
+     */
+    public ParallelQueryIterable<T> parallel(
+            final Executor executor
+    ) {
+        return Query.parallel(iterable, executor);
+    }
+
+    /**
+     * Returns an iterable object whose queries run on several threads.
+     *
+     * @param executor    The executor to run ranges of elements on.
+     * @param parallelism The maximum number of ranges to split elements into.
+     * @return An iterable object that runs queries in parallel.
+     */
+    public ParallelQueryIterable<T> parallel(
+            final Executor executor,
+            final int parallelism
+    ) {
+        return Query.parallel(iterable, executor, parallelism);
+    }
+
     /**
      * Projects the elements into a new type.
      *
@@ -101,6 +540,114 @@ public class QueryIterable<T> implements Iterable<T> {
         return Query.select(iterable, selector);
     }
 
+    /**
+     * Bypasses a number of elements and returns the remaining ones.
+     *
+     * @param count The number of elements to skip.
+     * @return An iterable object that returns the elements after the skipped ones.
+     */
+    public QueryIterable<T> skip(
+            final int count
+    ) {
+        return Query.skip(iterable, count);
+    }
+
+    /**
+     * Bypasses elements while a condition is met and returns the remaining ones.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return An iterable object that returns elements from the first one failing it.
+     */
+    public QueryIterable<T> skipWhile(
+            final Func2<Boolean, T> predicate
+    ) {
+        return Query.skipWhile(iterable, predicate);
+    }
+
+    /**
+     * Bypasses elements while a condition is met and returns the remaining ones.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return An iterable object that returns elements from the first one failing it.
+     */
+    public QueryIterable<T> skipWhile(
+            final Predicate<T> predicate
+    ) {
+        return Query.skipWhile(iterable, predicate);
+    }
+
+    /**
+     * Projects the elements into double values without boxing.
+     *
+     * @param selector An method to transform elements.
+     * @return A query that returns projected values from input.
+     */
+    public DoubleQuery<T> selectDouble(
+            final DoubleSelector<T> selector
+    ) {
+        return Query.selectDouble(iterable, selector);
+    }
+
+    /**
+     * Projects the elements into int values without boxing.
+     *
+     * @param selector An method to transform elements.
+     * @return A query that returns projected values from input.
+     */
+    public IntQuery<T> selectInt(
+            final IntSelector<T> selector
+    ) {
+        return Query.selectInt(iterable, selector);
+    }
+
+    /**
+     * Projects the elements into long values without boxing.
+     *
+     * @param selector An method to transform elements.
+     * @return A query that returns projected values from input.
+     */
+    public LongQuery<T> selectLong(
+            final LongSelector<T> selector
+    ) {
+        return Query.selectLong(iterable, selector);
+    }
+
+    /**
+     * Returns a number of elements from the start of current sequence.
+     *
+     * @param count The maximum number of elements to return.
+     * @return An iterable object that returns the first elements.
+     */
+    public QueryIterable<T> take(
+            final int count
+    ) {
+        return Query.take(iterable, count);
+    }
+
+    /**
+     * Returns elements while a condition is met.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return An iterable object that returns the leading elements meeting the condition.
+     */
+    public QueryIterable<T> takeWhile(
+            final Func2<Boolean, T> predicate
+    ) {
+        return Query.takeWhile(iterable, predicate);
+    }
+
+    /**
+     * Returns elements while a condition is met.
+     *
+     * @param predicate An method to determine whether an element meets a condition.
+     * @return An iterable object that returns the leading elements meeting the condition.
+     */
+    public QueryIterable<T> takeWhile(
+            final Predicate<T> predicate
+    ) {
+        return Query.takeWhile(iterable, predicate);
+    }
+
     /**
      * Returns a list from iterable object.
      *
@@ -110,6 +657,60 @@ public class QueryIterable<T> implements Iterable<T> {
         return Query.toList(iterable);
     }
 
+    /**
+     * Starts building a list from the elements on a background thread.
+     *
+     * @param executor The executor to run the query on.
+     * @param callback The callback to deliver the result to on the main thread.
+     * @return The running task.
+     */
+    public QueryTask<List<T>> toListAsync(
+            final Executor executor,
+            final QueryCallback<List<T>> callback
+    ) {
+        return Query.toListAsync(iterable, executor, callback);
+    }
+
+    /**
+     * Returns the union of two sets.
+     *
+     * @param other    A sequence of values to append to current sequence.
+     * @param comparer The comparer to test elements equality, or null to use default equality.
+     * @return An iterable object that returns the distinct elements from both sequences.
+     */
+    public QueryIterable<T> union(
+            final Iterable<T> other,
+            @Nullable final EqualityComparer<T> comparer
+    ) {
+        return Query.union(iterable, other, comparer);
+    }
+
+    /**
+     * Returns the union of two sets using default equality.
+     *
+     * @param other A sequence of values to append to current sequence.
+     * @return An iterable object that returns the distinct elements from both sequences.
+     */
+    public QueryIterable<T> union(
+            final Iterable<T> other
+    ) {
+        return Query.union(iterable, other);
+    }
+
+    /**
+     * Returns the union of two sorted sets.
+     *
+     * @param other      A sorted sequence of values to merge into current sequence.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @return An iterable object that returns the distinct elements from both sequences.
+     */
+    public QueryIterable<T> unionSorted(
+            final Iterable<T> other,
+            final Comparator<T> comparator
+    ) {
+        return Query.unionSorted(iterable, other, comparator);
+    }
+
     /**
      * Filters the elements from iterable object.
      *
@@ -133,4 +734,16 @@ public class QueryIterable<T> implements Iterable<T> {
     ) {
         return Query.where(iterable, predicate);
     }
+
+    /**
+     * Returns sliding windows of consecutive elements through a single reused list.
+     * <p>The returned list is replaced when iteration moves to the next window.
+     *
+     * @param size The number of elements of each window.
+     * @param step The number of elements between the starts of two windows.
+     * @return An iterable object that returns windows of elements.
+     */
+    public QueryIterable<List<T>> window(final int size, final int step) {
+        return Query.window(iterable, size, step);
+    }
 }
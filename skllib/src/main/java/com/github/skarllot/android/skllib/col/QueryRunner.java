@@ -0,0 +1,76 @@
+package com.github.skarllot.android.skllib.col;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Runs queries on background threads, one at a time.
+ * <p>Starting a query cancels the one started before it, so only the result of the latest query
+ * is delivered. It suits views that query again as their filter changes.
+ */
+public class QueryRunner {
+    private final Executor executor;
+    private QueryTask<?> current = null;
+
+    /**
+     * Creates a new instance of QueryRunner.
+     *
+     * @param executor The executor to run queries on.
+     */
+    public QueryRunner(final Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("executor == null");
+        }
+
+        this.executor = executor;
+    }
+
+    /**
+     * Cancels the running query, if any.
+     */
+    public synchronized void cancel() {
+        if (current != null) {
+            current.cancel();
+            current = null;
+        }
+    }
+
+    /**
+     * Starts counting the elements of a sequence, cancelling the running query.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param callback The callback to deliver the result to on the main thread.
+     * @param <T>      The type of elements.
+     * @return The running task.
+     */
+    public synchronized <T> QueryTask<Integer> count(
+            final Iterable<T> input,
+            final QueryCallback<Integer> callback
+    ) {
+        cancel();
+        final QueryTask<Integer> task = Query.countAsync(input, executor, callback);
+        current = task;
+        return task;
+    }
+
+    /**
+     * Starts building a list from the elements of a sequence, cancelling the running query.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param callback The callback to deliver the result to on the main thread.
+     * @param <T>      The type of elements.
+     * @return The running task.
+     */
+    public synchronized <T> QueryTask<List<T>> toList(
+            final Iterable<T> input,
+            final QueryCallback<List<T>> callback
+    ) {
+        cancel();
+        final QueryTask<List<T>> task = Query.toListAsync(input, executor, callback);
+        current = task;
+        return task;
+    }
+}
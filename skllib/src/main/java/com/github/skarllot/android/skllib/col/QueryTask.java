@@ -0,0 +1,195 @@
+package com.github.skarllot.android.skllib.col;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.android.internal.util.Predicate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Represents a query running on a background thread.
+ * <p>The query checks for cancellation before each source element, even ones that filters
+ * reject, and stops reading the source once cancelled. Its result is delivered to a
+ * {@link QueryCallback} on the main thread, unless the task was cancelled first.
+ *
+ * @param <R> The type of result.
+ */
+public class QueryTask<R> {
+    private final Handler handler;
+    private final QueryCallback<R> callback;
+    private volatile boolean cancelled = false;
+    private volatile boolean done = false;
+
+    private QueryTask(final QueryCallback<R> callback) {
+        this.handler = new Handler(Looper.getMainLooper());
+        this.callback = callback;
+    }
+
+    /**
+     * Starts counting the elements of a sequence on specified executor.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param executor The executor to run the query on.
+     * @param callback The callback to deliver the result to.
+     * @param <T>      The type of elements.
+     * @return The running task.
+     */
+    static <T> QueryTask<Integer> count(
+            final Iterable<T> input,
+            final Executor executor,
+            final QueryCallback<Integer> callback
+    ) {
+        final QueryTask<Integer> task = new QueryTask<>(callback);
+        task.start(executor, new Job<Integer>() {
+            @Override
+            Integer call() {
+                final int size = Query.knownSize(input);
+                if (size >= 0) {
+                    return size;
+                }
+
+                final int[] counter = {0};
+                Query.push(guard(input, task), new Predicate<T>() {
+                    @Override
+                    public boolean apply(T item) {
+                        counter[0]++;
+                        return true;
+                    }
+                });
+                return counter[0];
+            }
+        });
+
+        return task;
+    }
+
+    /**
+     * Starts building a list from the elements of a sequence on specified executor.
+     *
+     * @param input    An object that provides a sequence of values.
+     * @param executor The executor to run the query on.
+     * @param callback The callback to deliver the result to.
+     * @param <T>      The type of elements.
+     * @return The running task.
+     */
+    static <T> QueryTask<List<T>> toList(
+            final Iterable<T> input,
+            final Executor executor,
+            final QueryCallback<List<T>> callback
+    ) {
+        final QueryTask<List<T>> task = new QueryTask<>(callback);
+        task.start(executor, new Job<List<T>>() {
+            @Override
+            List<T> call() {
+                final int size = Query.knownSize(input);
+                final List<T> result = size >= 0 ? new ArrayList<T>(size) : new ArrayList<T>();
+                Query.push(guard(input, task), new Predicate<T>() {
+                    @Override
+                    public boolean apply(T item) {
+                        result.add(item);
+                        return true;
+                    }
+                });
+                return result;
+            }
+        });
+
+        return task;
+    }
+
+    /**
+     * Cancels this task, so its source is not read anymore and its result is not delivered.
+     *
+     * @return False whether the result was already delivered; otherwise, true.
+     */
+    public boolean cancel() {
+        if (done) {
+            return false;
+        }
+
+        cancelled = true;
+        return true;
+    }
+
+    /**
+     * Determines whether this task was cancelled.
+     *
+     * @return True whether the task was cancelled; otherwise, false.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Determines whether the result of this task was delivered.
+     *
+     * @return True whether the callback was called; otherwise, false.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    // Stops reading the source of input once task is cancelled, checked for each source element
+    private static <T> Iterable<T> guard(final Iterable<T> input, final QueryTask<?> task) {
+        return Pipeline.of(input).guard(new Predicate<Object>() {
+            @Override
+            public boolean apply(Object item) {
+                return !task.cancelled;
+            }
+        });
+    }
+
+    private void start(final Executor executor, final Job<R> job) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (cancelled) {
+                    return;
+                }
+
+                try {
+                    deliver(job.call(), null);
+                } catch (RuntimeException e) {
+                    deliver(null, e);
+                }
+            }
+        });
+    }
+
+    private void deliver(final R result, final RuntimeException error) {
+        if (cancelled) {
+            return;
+        }
+
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (cancelled) {
+                    return;
+                }
+
+                done = true;
+                if (error != null) {
+                    callback.onError(error);
+                } else {
+                    callback.onResult(result);
+                }
+            }
+        });
+    }
+
+    /**
+     * Defines the query run by a task.
+     *
+     * @param <R> The type of result.
+     */
+    private static abstract class Job<R> {
+        abstract R call();
+    }
+}
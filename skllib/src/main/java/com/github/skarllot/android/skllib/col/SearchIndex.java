@@ -0,0 +1,252 @@
+package com.github.skarllot.android.skllib.col;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides elements looked up by filter text through an index of trigrams.
+ * <p>Each trigram, a sequence of three characters, of the index text of elements maps to the
+ * sorted positions of elements that contain it. Index text and filters are both normalized by
+ * {@link SearchableUtil#normalize(String)}. A filter of three or more normalized characters only
+ * tests elements that contain every trigram of it, then {@link Searchable#match(String)} confirms
+ * each one. Shorter filters test every element.
+ * <p>The index is built once, when the SearchIndex is created, so changes to elements after that
+ * are not seen.
+ *
+ * @param <T> The type of elements.
+ */
+public class SearchIndex<T extends IndexableSearchable> {
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final Object[] items;
+    // Sorted trigram keys and, at same position, the sorted positions of elements
+    private final long[] keys;
+    private final int[][] postings;
+    private final long buildNanos;
+
+    /**
+     * Creates a new instance of SearchIndex from specified elements.
+     *
+     * @param input An object that provides a sequence of values.
+     */
+    public SearchIndex(final Iterable<T> input) {
+        if (input == null) {
+            throw new NullPointerException("input == null");
+        }
+
+        final long start = System.nanoTime();
+        items = Query.toList(input).toArray();
+
+        final Map<Long, Posting> builder = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            final char[] text = SearchableUtil.normalize(
+                    ((IndexableSearchable) items[i]).getIndexText());
+            for (int j = 0; j + 3 <= text.length; j++) {
+                final Long key = key(text, j);
+                Posting posting = builder.get(key);
+                if (posting == null) {
+                    posting = new Posting();
+                    builder.put(key, posting);
+                }
+                posting.add(i);
+            }
+        }
+
+        keys = new long[builder.size()];
+        int count = 0;
+        for (Long key : builder.keySet()) {
+            keys[count++] = key;
+        }
+        Arrays.sort(keys);
+
+        postings = new int[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            final Posting posting = builder.get(keys[i]);
+            postings[i] = Arrays.copyOf(posting.positions, posting.size);
+        }
+
+        buildNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Gets the time taken to build the index.
+     *
+     * @return The build time, in nanoseconds.
+     */
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Gets the estimated memory used by the index, leaving out the elements themselves.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytes() {
+        long result = 16 + 4L * items.length + 16 + 8L * keys.length + 16 + 4L * postings.length;
+        for (int[] posting : postings) {
+            result += 16 + 4L * posting.length;
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the number of distinct trigrams indexed.
+     *
+     * @return The number of trigrams.
+     */
+    public int getTrigramCount() {
+        return keys.length;
+    }
+
+    /**
+     * Determines whether any element matches specified filter.
+     *
+     * @param filter A text to lookup.
+     * @return True whether any element matches the specified filter; otherwise, false.
+     */
+    public boolean matchAny(final String filter) {
+        if (filter == null) {
+            throw new NullPointerException("filter == null");
+        }
+
+        final char[] normalized = SearchableUtil.normalize(filter);
+        final int[] candidates = candidates(normalized);
+        final int count = candidates == null ? items.length : candidates.length;
+        for (int i = 0; i < count; i++) {
+            final int position = candidates == null ? i : candidates[i];
+            if (SearchableUtil.match((Searchable) items[position], filter, normalized)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the elements that match specified filter.
+     *
+     * @param filter A text to lookup.
+     * @return An iterable object that returns matching elements in sequence order.
+     */
+    @SuppressWarnings("unchecked")
+    public QueryIterable<T> search(final String filter) {
+        if (filter == null) {
+            throw new NullPointerException("filter == null");
+        }
+
+        final char[] normalized = SearchableUtil.normalize(filter);
+        final int[] candidates = candidates(normalized);
+        final int count = candidates == null ? items.length : candidates.length;
+        final List<T> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final int position = candidates == null ? i : candidates[i];
+            if (SearchableUtil.match((Searchable) items[position], filter, normalized)) {
+                result.add((T) items[position]);
+            }
+        }
+
+        return new QueryIterable<>(result);
+    }
+
+    /**
+     * Returns the number of indexed elements.
+     *
+     * @return The number of elements.
+     */
+    public int size() {
+        return items.length;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchIndex (" + items.length + " elements, " + keys.length + " trigrams, "
+                + (items.length == 0 ? 0 : getBytes() / items.length) + " bytes per element, "
+                + "built in " + buildNanos / 1000000 + " ms)";
+    }
+
+    // Gets the sorted positions of elements that contain every trigram of filter, or null when
+    // filter is too short to narrow elements
+    private int[] candidates(final char[] text) {
+        if (text.length < 3) {
+            return null;
+        }
+
+        final int count = text.length - 2;
+        final int[][] lists = new int[count][];
+        for (int i = 0; i < count; i++) {
+            final int found = Arrays.binarySearch(keys, key(text, i));
+            if (found < 0) {
+                return NO_POSITIONS;
+            }
+            lists[i] = postings[found];
+        }
+
+        int shortest = 0;
+        for (int i = 1; i < count; i++) {
+            if (lists[i].length < lists[shortest].length) {
+                shortest = i;
+            }
+        }
+
+        int[] result = lists[shortest];
+        int size = result.length;
+        for (int i = 0; i < count && size > 0; i++) {
+            if (i != shortest && lists[i] != lists[shortest]) {
+                if (result == lists[shortest]) {
+                    result = Arrays.copyOf(result, size);
+                }
+                size = intersect(result, size, lists[i]);
+            }
+        }
+
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    // Keeps into target the positions also found into other, returning the new size
+    private static int intersect(final int[] target, final int size, final int[] other) {
+        int result = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < other.length; i++) {
+            final int position = target[i];
+            while (j < other.length && other[j] < position) {
+                j++;
+            }
+            if (j < other.length && other[j] == position) {
+                target[result++] = position;
+            }
+        }
+
+        return result;
+    }
+
+    private static long key(final char[] text, final int start) {
+        return ((long) text[start] << 32) | ((long) text[start + 1] << 16) | text[start + 2];
+    }
+
+    /**
+     * A growable list of element positions.
+     */
+    private static final class Posting {
+        int[] positions = new int[4];
+        int size = 0;
+
+        // Adds a position once, as positions are added in ascending order
+        void add(int position) {
+            if (size > 0 && positions[size - 1] == position) {
+                return;
+            }
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size << 1);
+            }
+            positions[size++] = position;
+        }
+    }
+}
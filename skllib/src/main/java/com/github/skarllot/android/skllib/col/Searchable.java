@@ -9,6 +9,9 @@ package com.github.skarllot.android.skllib.col;
 public interface Searchable {
     /**
      * Determines whether current instance meets a specific filter string.
+     * <p>When selections are refined, as enabled by {@link PredicableList#setRefinement(boolean)},
+     * an instance that meets a filter must also meet every prefix of it, as extended filters only
+     * test the instances that met a shorter filter.
      *
      * @param filter A text to lookup.
      * @return True whether filter text could be found anywhere into current instance. Otherwise, false.
@@ -1,5 +1,7 @@
 package com.github.skarllot.android.skllib.col;
 
+import java.text.Normalizer;
+
 // Authors:
 //  Fabrício Godoy <skarllot@gmail.com>, 2015.
 
@@ -7,6 +9,43 @@ package com.github.skarllot.android.skllib.col;
  * Provides common methods for Searchable.
  */
 public final class SearchableUtil {
+    private static final char[] EMPTY_TEXT = new char[0];
+
+    /**
+     * Determines whether a normalized text contains a normalized filter, without allocating.
+     *
+     * @param text   A text normalized by {@link #normalize(String)}.
+     * @param filter A filter normalized by {@link #normalize(String)}.
+     * @return True whether filter is found anywhere into text. Otherwise, false.
+     */
+    public static boolean contains(char[] text, char[] filter) {
+        if (text == null) {
+            throw new NullPointerException("text == null");
+        }
+        if (filter == null) {
+            throw new NullPointerException("filter == null");
+        }
+
+        final int last = text.length - filter.length;
+        if (filter.length == 0)
+            return true;
+
+        final char first = filter[0];
+        for (int i = 0; i <= last; i++) {
+            if (text[i] != first)
+                continue;
+
+            int j = 1;
+            while (j < filter.length && text[i + j] == filter[j]) {
+                j++;
+            }
+            if (j == filter.length)
+                return true;
+        }
+
+        return false;
+    }
+
     /**
      * Determines whether any element from iterable matches the specified filter.
      *
@@ -19,11 +58,68 @@ public final class SearchableUtil {
         if (iterable == null)
             return false;
 
+        final char[] normalized = filter == null ? null : normalize(filter);
         for (T item : iterable) {
-            if (item.match(filter))
+            if (match(item, filter, normalized))
                 return true;
         }
 
         return false;
     }
+
+    /**
+     * Determines whether an element matches a filter, testing {@link NormalizedSearchable}
+     * elements by the filter normalized once for a whole scan.
+     *
+     * @param item       The element to test.
+     * @param filter     A text to lookup.
+     * @param normalized The filter normalized by {@link #normalize(String)}, or null.
+     * @return True whether the element matches the filter. Otherwise, false.
+     */
+    static boolean match(Searchable item, String filter, char[] normalized) {
+        if (normalized != null && item instanceof NormalizedSearchable)
+            return ((NormalizedSearchable) item).matchNormalized(normalized);
+
+        return item.match(filter);
+    }
+
+    /**
+     * Converts a text to the form compared by searches.
+     * <p>Letters are lower-cased and stripped of diacritics, and each run of whitespace is
+     * replaced by a single space, leaving out leading and trailing whitespace.
+     *
+     * @param text A text to normalize.
+     * @return The normalized characters, which are empty when text is null.
+     */
+    public static char[] normalize(String text) {
+        if (text == null || text.isEmpty())
+            return EMPTY_TEXT;
+
+        final String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        final char[] result = new char[decomposed.length()];
+        int size = 0;
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            final char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK)
+                continue;
+
+            if (Character.isWhitespace(c)) {
+                space = size > 0;
+                continue;
+            }
+            if (space) {
+                result[size++] = ' ';
+                space = false;
+            }
+            result[size++] = Character.toLowerCase(c);
+        }
+
+        if (size == result.length)
+            return result;
+
+        final char[] trimmed = new char[size];
+        System.arraycopy(result, 0, trimmed, 0, size);
+        return trimmed;
+    }
 }
@@ -0,0 +1,122 @@
+package com.github.skarllot.android.skllib.col;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Keeps the positions of selected elements for recently used filters, up to a memory budget.
+ * <p>Entries are kept in least recently used order and the eldest ones are dropped when the
+ * estimated size exceeds the budget. Entries belong to a target version; looking up another
+ * version drops every entry.
+ */
+final class SelectionCache {
+    // Estimated bytes used by map entry, key and array headers
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final LinkedHashMap<String, int[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int budget;
+    private int bytes = 0;
+    private int version = 0;
+    private int hits = 0;
+    private int misses = 0;
+
+    /**
+     * Creates a new instance of SelectionCache.
+     *
+     * @param budget The maximum number of bytes estimated for cached entries.
+     */
+    SelectionCache(final int budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Gets the selection cached for specified filter.
+     *
+     * @param filter  The filter of selection.
+     * @param version The version of target.
+     * @return The positions of selected elements if found; otherwise, null.
+     */
+    int[] get(final String filter, final int version) {
+        checkVersion(version);
+        final int[] result = entries.get(filter);
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the estimated number of bytes used by cached entries.
+     *
+     * @return The number of bytes.
+     */
+    int getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the number of lookups that found a selection.
+     *
+     * @return The number of lookups.
+     */
+    int getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that found no selection.
+     *
+     * @return The number of lookups.
+     */
+    int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Caches the selection for specified filter, dropping least recently used entries as needed.
+     * <p>A selection larger than the whole budget is not cached.
+     *
+     * @param filter  The filter of selection.
+     * @param version The version of target.
+     * @param indices The positions of selected elements, which must not be changed later.
+     */
+    void put(final String filter, final int version, final int[] indices) {
+        checkVersion(version);
+        final int size = sizeOf(filter, indices);
+        if (size > budget) {
+            return;
+        }
+
+        final int[] previous = entries.put(filter, indices);
+        if (previous != null) {
+            bytes -= sizeOf(filter, previous);
+        }
+        bytes += size;
+
+        final Iterator<Map.Entry<String, int[]>> iterator = entries.entrySet().iterator();
+        while (bytes > budget) {
+            final Map.Entry<String, int[]> eldest = iterator.next();
+            bytes -= sizeOf(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+        }
+    }
+
+    private void checkVersion(final int version) {
+        if (version != this.version) {
+            entries.clear();
+            bytes = 0;
+            this.version = version;
+        }
+    }
+
+    private static int sizeOf(final String filter, final int[] indices) {
+        return ENTRY_OVERHEAD + 2 * filter.length() + 4 * indices.length;
+    }
+}
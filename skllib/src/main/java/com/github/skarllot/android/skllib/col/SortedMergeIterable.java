@@ -0,0 +1,222 @@
+package com.github.skarllot.android.skllib.col;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * An Iterable type that walks two sorted sequences side by side to compute a set operation.
+ * <p>Each sequence is read once and only their current elements are held, so the operation runs
+ * in linear time and constant memory. Both sequences must be sorted by the same comparator; the
+ * ordering is checked while they are read, comparing each element to the previous one.
+ *
+ * @param <T> The type of elements.
+ */
+final class SortedMergeIterable<T> implements Iterable<T> {
+    static final int EXCEPT = 0;
+    static final int INTERSECT = 1;
+    static final int UNION = 2;
+
+    private final Iterable<T> first;
+    private final Iterable<T> second;
+    private final Comparator<T> comparator;
+    private final int operation;
+
+    /**
+     * Creates a new instance of SortedMergeIterable.
+     *
+     * @param first      The first sorted sequence of values.
+     * @param second     The second sorted sequence of values.
+     * @param comparator A comparator to determine the ordering of two objects.
+     * @param operation  The set operation, one of {@link #EXCEPT}, {@link #INTERSECT} or
+     *                   {@link #UNION}.
+     */
+    SortedMergeIterable(
+            final Iterable<T> first,
+            final Iterable<T> second,
+            final Comparator<T> comparator,
+            final int operation
+    ) {
+        this.first = first;
+        this.second = second;
+        this.comparator = comparator;
+        this.operation = operation;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new MergeIterator<>(this);
+    }
+
+    /**
+     * Holds the current element of a sorted sequence.
+     *
+     * @param <T> The type of elements.
+     */
+    private static final class Cursor<T> {
+        final Iterator<T> iterator;
+        final Comparator<T> comparator;
+        final String name;
+        T head = null;
+        boolean hasHead = false;
+
+        Cursor(Iterator<T> iterator, Comparator<T> comparator, String name) {
+            this.iterator = iterator;
+            this.comparator = comparator;
+            this.name = name;
+            advance();
+        }
+
+        /**
+         * Moves to the next element of the sequence.
+         *
+         * @throws IllegalArgumentException When the sequence is found unsorted.
+         */
+        void advance() throws IllegalArgumentException {
+            if (!iterator.hasNext()) {
+                head = null;
+                hasHead = false;
+                return;
+            }
+
+            final T item = iterator.next();
+            if (hasHead && comparator.compare(head, item) > 0) {
+                throw new IllegalArgumentException(name + " is not sorted by comparator");
+            }
+            head = item;
+            hasHead = true;
+        }
+    }
+
+    /**
+     * An iterator for sorted merge loops.
+     * <p>Both sequences are read from first access.
+     *
+     * @param <T> The type of elements
+     */
+    private static final class MergeIterator<T> implements Iterator<T> {
+        final SortedMergeIterable<T> parent;
+        final Comparator<T> comparator;
+        Cursor<T> first = null;
+        Cursor<T> second = null;
+        T nextItem = null;
+        boolean hasNextItem = false;
+        T lastItem = null;
+        boolean hasLastItem = false;
+
+        MergeIterator(SortedMergeIterable<T> parent) {
+            this.parent = parent;
+            this.comparator = parent.comparator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNextItem)
+                return true;
+
+            if (first == null) {
+                first = new Cursor<>(parent.first.iterator(), comparator, "first");
+                second = new Cursor<>(parent.second.iterator(), comparator, "second");
+            }
+
+            switch (parent.operation) {
+                case EXCEPT:
+                    return findExcept();
+                case INTERSECT:
+                    return findIntersect();
+                default:
+                    return findUnion();
+            }
+        }
+
+        @Override
+        public T next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final T item = nextItem;
+            nextItem = null;
+            hasNextItem = false;
+            return item;
+        }
+
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException();
+        }
+
+        // Returns every element of first that has no equal element into second
+        private boolean findExcept() {
+            while (first.hasHead) {
+                final int result = second.hasHead
+                        ? comparator.compare(first.head, second.head) : -1;
+                if (result < 0) {
+                    return found(first.head, first);
+                }
+
+                if (result == 0) {
+                    first.advance();
+                } else {
+                    second.advance();
+                }
+            }
+
+            return false;
+        }
+
+        // Returns once each element found into both sequences
+        private boolean findIntersect() {
+            while (first.hasHead && second.hasHead) {
+                final int result = comparator.compare(first.head, second.head);
+                if (result < 0) {
+                    first.advance();
+                } else if (result > 0) {
+                    second.advance();
+                } else {
+                    final T item = first.head;
+                    second.advance();
+                    if (isDistinct(item)) {
+                        return found(item, first);
+                    }
+                    first.advance();
+                }
+            }
+
+            return false;
+        }
+
+        // Returns once each element found into any sequence, preferring first on ties
+        private boolean findUnion() {
+            while (first.hasHead || second.hasHead) {
+                final Cursor<T> cursor = !second.hasHead || (first.hasHead
+                        && comparator.compare(first.head, second.head) <= 0)
+                        ? first : second;
+
+                final T item = cursor.head;
+                if (isDistinct(item)) {
+                    return found(item, cursor);
+                }
+                cursor.advance();
+            }
+
+            return false;
+        }
+
+        private boolean found(final T item, final Cursor<T> cursor) {
+            nextItem = item;
+            hasNextItem = true;
+            lastItem = item;
+            hasLastItem = true;
+            cursor.advance();
+            return true;
+        }
+
+        private boolean isDistinct(final T item) {
+            return !hasLastItem || comparator.compare(lastItem, item) != 0;
+        }
+    }
+}
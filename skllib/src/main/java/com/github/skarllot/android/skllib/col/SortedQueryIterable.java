@@ -0,0 +1,99 @@
+package com.github.skarllot.android.skllib.col;
+
+import android.support.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Provides a list of values known to be sorted by a comparator.
+ * <p>Lookups by the same comparator run a binary search, taking O(log n) time on random-access
+ * lists instead of scanning every element.
+ *
+ * @param <T> The type of elements
+ */
+public class SortedQueryIterable<T> extends QueryIterable<T> {
+    private final List<T> list;
+    private final Comparator<T> comparator;
+
+    SortedQueryIterable(
+            final List<T> list,
+            final Comparator<T> comparator,
+            final boolean checked
+    ) {
+        super(list);
+        this.list = list;
+        this.comparator = comparator;
+
+        if (checked) {
+            T previous = null;
+            boolean first = true;
+            for (T item : list) {
+                if (!first && comparator.compare(previous, item) > 0) {
+                    throw new IllegalArgumentException("list is not sorted by comparator");
+                }
+                previous = item;
+                first = false;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements found.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public int count() {
+        return list.size();
+    }
+
+    /**
+     * Determines whether specified element exists into sorted elements.
+     * <p>Runs a binary search when comparator is null or equal to the sorting comparator;
+     * otherwise, every element is scanned.
+     *
+     * @param t          The element to look for.
+     * @param comparator A comparator to determine the ordering of two objects, or null to use the
+     *                   sorting comparator.
+     * @return True whether element was found; otherwise, false.
+     */
+    @Override
+    public boolean exists(
+            final T t,
+            @Nullable final Comparator<T> comparator
+    ) {
+        if (comparator != null && !comparator.equals(this.comparator)) {
+            return super.exists(t, comparator);
+        }
+        if (t == null) {
+            throw new NullPointerException("t == null");
+        }
+
+        return indexOf(t) >= 0;
+    }
+
+    /**
+     * Gets the comparator which elements are sorted by.
+     *
+     * @return The sorting comparator.
+     */
+    public Comparator<T> getComparator() {
+        return comparator;
+    }
+
+    /**
+     * Searches for specified element by binary search.
+     *
+     * @param t The element to look for.
+     * @return The position of a matching element if found; otherwise, the negated insertion point
+     * minus one, as {@link Collections#binarySearch(List, Object, Comparator)}.
+     */
+    public int indexOf(final T t) {
+        return Collections.binarySearch(list, t, comparator);
+    }
+}
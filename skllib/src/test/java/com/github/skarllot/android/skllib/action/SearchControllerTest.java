@@ -0,0 +1,204 @@
+package com.github.skarllot.android.skllib.action;
+
+import com.github.skarllot.android.skllib.col.PredicableList;
+import com.github.skarllot.android.skllib.col.Query;
+import com.github.skarllot.android.skllib.col.QueryCallback;
+import com.github.skarllot.android.skllib.col.Searchable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+/**
+ * Tests the background side of SearchController.
+ * <p>The main thread handler does nothing on unit tests, so debounced text is never filtered and
+ * selections are never delivered; filters are started by submitting text instead.
+ */
+public class SearchControllerTest {
+    private final List<Runnable> jobs = new ArrayList<>();
+    private final Executor executor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            jobs.add(command);
+        }
+    };
+    private int matches;
+    private PredicableList<Item> list;
+    private SearchController<Item> controller;
+
+    @Before
+    public void setUp() throws Exception {
+        jobs.clear();
+        matches = 0;
+        list = new PredicableList<>(items("apple", "apricot", "banana"));
+        controller = new SearchController<>(list, executor, 300, new FailingCallback());
+    }
+
+    private List<Item> items(String... names) {
+        final List<Item> result = new ArrayList<>();
+        for (String name : names) {
+            result.add(new Item(name));
+        }
+        return result;
+    }
+
+    private String selection() {
+        synchronized (list) {
+            return Query.toList(list.getSelection()).toString();
+        }
+    }
+
+    private void runJobs() {
+        for (Runnable job : jobs) {
+            job.run();
+        }
+        jobs.clear();
+    }
+
+    @Test
+    public void onQueryTextChange_coalescesUntilSubmitted() throws Exception {
+        controller.onQueryTextChange("a");
+        controller.onQueryTextChange("ap");
+        controller.onQueryTextChange("apr");
+        assertTrue(jobs.isEmpty());
+
+        controller.onQueryTextSubmit("apr");
+        assertEquals(1, jobs.size());
+        runJobs();
+
+        assertEquals("[apricot]", selection());
+        assertEquals(4, controller.getQueriesRequested());
+        assertEquals(1, controller.getQueriesRun());
+        assertEquals(3, controller.getQueriesCoalesced());
+    }
+
+    @Test
+    public void onQueryTextSubmit_skipsFilterOfStaleText() throws Exception {
+        controller.onQueryTextSubmit("a");
+        controller.onQueryTextSubmit("ban");
+        assertEquals(2, jobs.size());
+
+        jobs.get(0).run();
+        assertEquals(0, matches);
+        assertEquals(0, controller.getQueriesRun());
+
+        jobs.get(1).run();
+        assertEquals("[banana]", selection());
+        assertEquals(1, controller.getQueriesRun());
+    }
+
+    @Test
+    public void onQueryTextChange_makesStartedFilterStale() throws Exception {
+        controller.onQueryTextSubmit("a");
+        controller.onQueryTextChange("ap");
+        runJobs();
+
+        assertEquals(0, matches);
+        assertEquals(0, controller.getQueriesRun());
+    }
+
+    @Test
+    public void cancel_skipsStartedFilter() throws Exception {
+        controller.onQueryTextSubmit("a");
+        controller.cancel();
+        runJobs();
+
+        assertEquals(0, matches);
+        assertEquals(0, controller.getQueriesRun());
+    }
+
+    @Test
+    public void setTarget_beforeAnyTextWaitsForFilter() throws Exception {
+        controller.setTarget(items("pineapple"));
+        assertTrue(jobs.isEmpty());
+
+        controller.onQueryTextSubmit("apple");
+        runJobs();
+
+        assertEquals("[pineapple]", selection());
+    }
+
+    @Test
+    public void setTarget_whileFilterPendingRefiltersNewTarget() throws Exception {
+        controller.onQueryTextSubmit("apple");
+        controller.setTarget(items("pineapple", "apple pie", "grape"));
+        assertEquals(2, jobs.size());
+        runJobs();
+
+        assertEquals("[pineapple, apple pie]", selection());
+        assertEquals(1, controller.getQueriesRun());
+        assertEquals(2, controller.getQueriesRequested());
+    }
+
+    @Test
+    public void setTarget_whileTextPendingWaitsForText() throws Exception {
+        controller.onQueryTextSubmit("a");
+        runJobs();
+        controller.onQueryTextChange("gr");
+        controller.setTarget(items("grape", "apple"));
+        assertTrue(jobs.isEmpty());
+
+        controller.onQueryTextSubmit("gr");
+        runJobs();
+
+        assertEquals("[grape]", selection());
+        assertEquals(2, controller.getQueriesRun());
+    }
+
+    @Test
+    public void setTarget_isAppliedEvenByStaleFilter() throws Exception {
+        controller.onQueryTextSubmit("a");
+        controller.setTarget(items("grape"));
+        jobs.get(0).run();
+
+        assertEquals(0, controller.getQueriesRun());
+        synchronized (list) {
+            assertEquals("[grape]", Query.toList(list.getTarget()).toString());
+        }
+    }
+
+    /**
+     * A searchable element that counts its matches.
+     */
+    private final class Item implements Searchable {
+        final String name;
+
+        Item(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean match(String filter) {
+            matches++;
+            return name.contains(filter);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * A callback that fails the test when called.
+     */
+    private static final class FailingCallback implements QueryCallback<List<Item>> {
+        @Override
+        public void onError(RuntimeException e) {
+            fail("onError " + e);
+        }
+
+        @Override
+        public void onResult(List<Item> result) {
+            fail("onResult " + result);
+        }
+    }
+}
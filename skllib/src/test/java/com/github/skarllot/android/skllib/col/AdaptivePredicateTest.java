@@ -0,0 +1,100 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.android.internal.util.Predicate;
+import com.github.skarllot.android.skllib.Func2;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class AdaptivePredicateTest {
+    private static final Predicate<Integer> EVEN = new Predicate<Integer>() {
+        @Override
+        public boolean apply(Integer x) {
+            return x % 2 == 0;
+        }
+    };
+    private static final Func2<Boolean, Integer> SMALL = new Func2<Boolean, Integer>() {
+        @Override
+        public Boolean call(Integer x) {
+            return x < 100;
+        }
+    };
+
+    @Test
+    public void and_movesRejectingConditionFirst() throws Exception {
+        final Predicate<Integer> always = new Predicate<Integer>() {
+            @Override
+            public boolean apply(Integer x) {
+                return true;
+            }
+        };
+        final AdaptivePredicate<Integer> predicate = AdaptivePredicate.and(always, EVEN);
+        for (int i = 0; i < AdaptivePredicate.REORDER_PERIOD * 4; i++) {
+            assertEquals(i % 2 == 0, predicate.apply(i));
+        }
+
+        assertArrayEquals(new int[]{1, 0}, predicate.getOrder());
+    }
+
+    @Test
+    public void or_meetsAnyCondition() throws Exception {
+        final AdaptivePredicate<Integer> predicate = AdaptivePredicate.or(SMALL, SMALL);
+
+        assertTrue(predicate.apply(5));
+        assertFalse(predicate.apply(500));
+    }
+
+    @Test
+    public void apply_keepsResultsUnderConcurrentReordering() throws Exception {
+        final AdaptivePredicate<Integer> predicate = AdaptivePredicate.and(
+                new Predicate<Integer>() {
+                    @Override
+                    public boolean apply(Integer x) {
+                        return x % 3 != 0;
+                    }
+                },
+                EVEN,
+                new Predicate<Integer>() {
+                    @Override
+                    public boolean apply(Integer x) {
+                        return x % 5 != 0;
+                    }
+                });
+        final AtomicInteger failures = new AtomicInteger();
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 200000; i++) {
+                        final boolean expected = i % 3 != 0 && i % 2 == 0 && i % 5 != 0;
+                        if (predicate.apply(i) != expected) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failures.get());
+        final int[] order = predicate.getOrder();
+        Arrays.sort(order);
+        assertArrayEquals(new int[]{0, 1, 2}, order);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void and_rejectsNullCondition() throws Exception {
+        AdaptivePredicate.and(EVEN, null);
+    }
+}
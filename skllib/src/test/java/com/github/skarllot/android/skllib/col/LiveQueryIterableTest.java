@@ -0,0 +1,124 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.github.skarllot.android.skllib.EventListener;
+import com.github.skarllot.android.skllib.Func2;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class LiveQueryIterableTest {
+    private static final Func2<Boolean, Integer> EVEN = new Func2<Boolean, Integer>() {
+        @Override
+        public Boolean call(Integer x) {
+            return x % 2 == 0;
+        }
+    };
+    private static final Func2<String, Integer> NAME = new Func2<String, Integer>() {
+        @Override
+        public String call(Integer x) {
+            return "v" + x;
+        }
+    };
+
+    private final List<String> events = new ArrayList<>();
+    private ObservableList<Integer> source;
+    private LiveQueryIterable<String> live;
+
+    @Before
+    public void setUp() throws Exception {
+        source = new ObservableList<>(Arrays.asList(0, 1, 2, 3, 4, 5));
+        live = new QueryIterable<>(source).where(EVEN).select(NAME).live();
+        events.clear();
+        live.setChangeListener(new EventListener<ListChangeEventData<String>>() {
+            @Override
+            public void onTrigger(Object sender, ListChangeEventData<String> data) {
+                events.add(data.getAction() + " " + data.getPosition() + " "
+                        + data.getItem() + " " + data.getOldItem());
+            }
+        });
+    }
+
+    @Test
+    public void update_keepingMatchReplacesInPlace() throws Exception {
+        source.set(2, 8);
+
+        assertEquals(Arrays.asList("v0", "v8", "v4"), live.toList());
+        assertEquals(Arrays.asList("Update 1 v8 v2"), events);
+    }
+
+    @Test
+    public void update_changingMatchMovesSlots() throws Exception {
+        source.set(2, 7);
+        source.set(3, 6);
+        source.set(2, 2);
+
+        assertEquals(Arrays.asList("v0", "v2", "v6", "v4"), live.toList());
+        assertEquals(Arrays.asList(
+                "Remove 1 null v2", "Insert 1 v6 null", "Insert 1 v2 null"), events);
+    }
+
+    @Test
+    public void update_notMatchingIsSilent() throws Exception {
+        source.set(1, 9);
+
+        assertEquals(Arrays.asList("v0", "v2", "v4"), live.toList());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void remove_shiftsFollowingSlots() throws Exception {
+        source.remove(1);
+        source.remove(1);
+        source.set(2, 10);
+
+        assertEquals(Arrays.asList("v0", "v10"), live.toList());
+        assertEquals(Arrays.asList("Remove 1 null v2", "Update 1 v10 v4"), events);
+    }
+
+    @Test
+    public void insert_findsPositionFromFollowingSlot() throws Exception {
+        source.add(1, 12);
+        source.add(3, 13);
+        source.add(source.size(), 14);
+
+        assertEquals(Arrays.asList("v0", "v12", "v2", "v4", "v14"), live.toList());
+        assertEquals(Arrays.asList("Insert 1 v12 null", "Insert 4 v14 null"), events);
+    }
+
+    @Test
+    public void randomChanges_matchFullQuery() throws Exception {
+        final Random random = new Random(1);
+        for (int step = 0; step < 2000; step++) {
+            final int operation = random.nextInt(3);
+            if (operation == 0 || source.isEmpty()) {
+                source.add(random.nextInt(source.size() + 1), random.nextInt(100));
+            } else if (operation == 1) {
+                source.remove(random.nextInt(source.size()));
+            } else {
+                source.set(random.nextInt(source.size()), random.nextInt(100));
+            }
+
+            final List<String> expected = new QueryIterable<>(new ArrayList<>(source))
+                    .where(EVEN).select(NAME).toList();
+            assertEquals("step " + step, expected, live.toList());
+        }
+    }
+
+    @Test
+    public void clear_resetsResult() throws Exception {
+        source.clear();
+
+        assertEquals(0, live.count());
+        assertEquals(Arrays.asList("Reset -1 null null"), events);
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.skarllot.android.skllib.col;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class OpenHashSetTest {
+    // Sends every number to one of two buckets near the end of a 32 slots table, so elements
+    // share a probe cluster that wraps around to the start of table
+    private static final EqualityComparer<Integer> COLLIDING = new EqualityComparer<Integer>() {
+        @Override
+        public boolean equals(Integer x, Integer y) {
+            return x.equals(y);
+        }
+
+        @Override
+        public int getHashCode(Integer t) {
+            return 30 + t % 2;
+        }
+    };
+
+    @Test
+    public void add_rejectsDuplicates() throws Exception {
+        final OpenHashSet<String> set = new OpenHashSet<>(-1, null);
+
+        assertTrue(set.add("a"));
+        assertTrue(set.add(null));
+        assertFalse(set.add("a"));
+        assertFalse(set.add(null));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(null));
+    }
+
+    @Test
+    public void remove_keepsCollidingElementsReachable() throws Exception {
+        final OpenHashSet<Integer> set = new OpenHashSet<>(4, COLLIDING);
+        for (int i = 0; i < 20; i++) {
+            set.add(i);
+        }
+
+        for (int i = 0; i < 20; i += 3) {
+            assertTrue(set.remove(i));
+            assertFalse(set.remove(i));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("contains " + i, i % 3 != 0, set.contains(i));
+        }
+        assertEquals(13, set.size());
+    }
+
+    @Test
+    public void remove_thenReinsert() throws Exception {
+        final OpenHashSet<Integer> set = new OpenHashSet<>(4, COLLIDING);
+        for (int i = 0; i < 10; i++) {
+            set.add(i);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 10; i += 2) {
+                assertTrue(set.remove(i));
+            }
+            for (int i = 0; i < 10; i += 2) {
+                assertFalse(set.contains(i));
+                assertTrue(set.add(i));
+            }
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(set.contains(i));
+            assertFalse(set.add(i));
+        }
+        assertEquals(10, set.size());
+    }
+
+    @Test
+    public void contains_withPrefilter() throws Exception {
+        final OpenHashSet<Integer> set = OpenHashSet.from(Arrays.asList(1, 3, 5, 7), null, true);
+
+        assertTrue(set.contains(5));
+        assertFalse(set.contains(4));
+        assertTrue(set.remove(5));
+        assertFalse(set.contains(5));
+    }
+}
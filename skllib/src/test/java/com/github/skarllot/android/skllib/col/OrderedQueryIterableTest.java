@@ -0,0 +1,134 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.android.internal.util.Predicate;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class OrderedQueryIterableTest {
+    private static final int SIZE = 1000;
+
+    private int comparisons = 0;
+
+    private final Comparator<int[]> byKey = new Comparator<int[]>() {
+        @Override
+        public int compare(int[] a, int[] b) {
+            comparisons++;
+            return a[0] < b[0] ? -1 : (a[0] == b[0] ? 0 : 1);
+        }
+    };
+
+    /**
+     * Creates pairs of a key with few distinct values and the original position.
+     */
+    private static List<int[]> items() {
+        final Random random = new Random(42);
+        final List<int[]> items = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            items.add(new int[]{random.nextInt(10), i});
+        }
+        return items;
+    }
+
+    /**
+     * Hides the size of a list, so elements must be read to be counted.
+     */
+    private static <T> Iterable<T> unsized(final List<T> list) {
+        return new Iterable<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return list.iterator();
+            }
+        };
+    }
+
+    private static List<Integer> positions(Iterable<int[]> items) {
+        final List<Integer> result = new ArrayList<>();
+        for (int[] item : items) {
+            result.add(item[1]);
+        }
+        return result;
+    }
+
+    @Test
+    public void take_matchesStableFullSort() throws Exception {
+        final List<int[]> items = items();
+        final List<int[]> sorted = new ArrayList<>(items);
+        Collections.sort(sorted, byKey);
+
+        for (int count : new int[]{1, 2, 7, 64, 150, SIZE - 1, SIZE, SIZE + 1}) {
+            final List<Integer> expected =
+                    positions(sorted.subList(0, Math.min(count, SIZE)));
+
+            assertEquals("unsized " + count, expected,
+                    positions(Query.take(Query.orderBy(unsized(items), byKey), count)));
+            assertEquals("sized " + count, expected,
+                    positions(Query.take(Query.orderBy(items, byKey), count)));
+            assertEquals("instance " + count, expected,
+                    positions(Query.orderBy(unsized(items), byKey).take(count)));
+        }
+    }
+
+    @Test
+    public void take_doesNotSortEverything() throws Exception {
+        final OrderedQueryIterable<int[]> ordered = Query.orderBy(unsized(items()), byKey);
+
+        comparisons = 0;
+        assertEquals(3, Query.count(Query.take(ordered, 3)));
+        assertTrue("comparisons " + comparisons, comparisons < 3 * SIZE);
+    }
+
+    @Test
+    public void firstOrNull_returnsEarliestSmallest() throws Exception {
+        final List<int[]> items = items();
+        final List<int[]> sorted = new ArrayList<>(items);
+        Collections.sort(sorted, byKey);
+        final OrderedQueryIterable<int[]> ordered = Query.orderBy(unsized(items), byKey);
+
+        comparisons = 0;
+        assertSame(sorted.get(0), Query.firstOrNull(ordered));
+        assertTrue("comparisons " + comparisons, comparisons < SIZE);
+        assertSame(sorted.get(0), ordered.firstOrNull());
+        assertNull(Query.firstOrNull(Query.orderBy(unsized(new ArrayList<int[]>()), byKey)));
+    }
+
+    @Test
+    public void firstOrNull_returnsEarliestSmallestMatch() throws Exception {
+        final List<int[]> items = items();
+        final Predicate<int[]> odd = new Predicate<int[]>() {
+            @Override
+            public boolean apply(int[] item) {
+                return item[0] % 2 != 0;
+            }
+        };
+        int[] expected = null;
+        for (int[] item : items) {
+            if (odd.apply(item) && (expected == null || item[0] < expected[0])) {
+                expected = item;
+            }
+        }
+
+        assertSame(expected, Query.firstOrNull(Query.orderBy(items, byKey), odd));
+    }
+
+    @Test
+    public void count_doesNotCompare() throws Exception {
+        final OrderedQueryIterable<int[]> ordered = Query.orderBy(unsized(items()), byKey);
+
+        comparisons = 0;
+        assertEquals(SIZE, Query.count(ordered));
+        assertEquals(SIZE, ordered.count());
+        assertEquals(0, comparisons);
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.github.skarllot.android.skllib.Func2;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class ParallelQueryIterableTest {
+    private static final int SIZE = ParallelQueryIterable.MIN_CHUNK_SIZE * 4;
+
+    private final List<Integer> source = new ArrayList<>();
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        for (int i = 0; i < SIZE; i++) {
+            source.add(i);
+        }
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void toList_keepsSourceOrder() throws Exception {
+        final List<Integer> result = new QueryIterable<>(source)
+                .parallel(executor, 4)
+                .select(new Func2<Integer, Integer>() {
+                    @Override
+                    public Integer call(Integer x) {
+                        return x * 2;
+                    }
+                })
+                .toList();
+
+        assertEquals(SIZE, result.size());
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i * 2, (int) result.get(i));
+        }
+    }
+
+    @Test
+    public void count_cancelsOtherRangesWhenOneFails() throws Exception {
+        final CountDownLatch started = new CountDownLatch(3);
+        final CountDownLatch interrupted = new CountDownLatch(3);
+        final ParallelQueryIterable<Integer> query = new QueryIterable<>(source)
+                .parallel(executor, 4)
+                .where(new Func2<Boolean, Integer>() {
+                    @Override
+                    public Boolean call(Integer x) {
+                        if (x == 0) {
+                            awaitQuietly(started);
+                            throw new IllegalStateException("boom");
+                        }
+                        if (x % ParallelQueryIterable.MIN_CHUNK_SIZE == 0) {
+                            // Blocks the first element of each other range until interrupted
+                            started.countDown();
+                            try {
+                                Thread.sleep(10000);
+                            } catch (InterruptedException e) {
+                                interrupted.countDown();
+                            }
+                        }
+                        return true;
+                    }
+                });
+
+        try {
+            query.count();
+            fail("count() should have thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("boom", e.getMessage());
+        }
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
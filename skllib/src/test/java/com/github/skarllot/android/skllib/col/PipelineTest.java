@@ -0,0 +1,218 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.android.internal.util.Predicate;
+import com.github.skarllot.android.skllib.Func2;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class PipelineTest {
+    private static final List<Integer> NUMBERS = Arrays.asList(1, 2, 3, 4, 5, 6);
+
+    @Test
+    public void whereSelect_runsEachElementThroughEveryStage() throws Exception {
+        final List<String> calls = new ArrayList<>();
+        final QueryIterable<Integer> query = new QueryIterable<>(NUMBERS)
+                .where(new Predicate<Integer>() {
+                    @Override
+                    public boolean apply(Integer x) {
+                        calls.add("where " + x);
+                        return x % 2 == 0;
+                    }
+                })
+                .select(new Func2<Integer, Integer>() {
+                    @Override
+                    public Integer call(Integer x) {
+                        calls.add("select " + x);
+                        return x * 10;
+                    }
+                });
+
+        assertEquals(Arrays.asList(20, 40, 60), query.toList());
+        assertEquals(Arrays.asList(
+                "where 1", "where 2", "select 2", "where 3", "where 4", "select 4",
+                "where 5", "where 6", "select 6"), calls);
+    }
+
+    @Test
+    public void whereSelect_isFusedIntoOnePipeline() throws Exception {
+        final QueryIterable<String> query = new QueryIterable<>(NUMBERS)
+                .where(new Func2<Boolean, Integer>() {
+                    @Override
+                    public Boolean call(Integer x) {
+                        return x > 2;
+                    }
+                })
+                .select(new Func2<String, Integer>() {
+                    @Override
+                    public String call(Integer x) {
+                        return "v" + x;
+                    }
+                })
+                .where(new Func2<Boolean, String>() {
+                    @Override
+                    public Boolean call(String x) {
+                        return !x.equals("v5");
+                    }
+                });
+
+        assertEquals("Scan ArrayList\n  -> Where\n  -> Select\n  -> Where", query.explain());
+        assertEquals(Arrays.asList("v3", "v4", "v6"), query.toList());
+        assertEquals(3, query.count());
+        assertEquals("v3", query.firstOrNull());
+    }
+
+    @Test
+    public void select_keepsNullValues() throws Exception {
+        final QueryIterable<Integer> query = new QueryIterable<>(Arrays.asList(1, null, 3))
+                .select(new Func2<Integer, Integer>() {
+                    @Override
+                    public Integer call(Integer x) {
+                        return x;
+                    }
+                });
+
+        assertEquals(Arrays.asList(1, null, 3), query.toList());
+    }
+
+    @Test
+    public void optimize_runsSourceFiltersBeforeProjection() throws Exception {
+        final int[] calls = {0};
+        final ProjectedQueryIterable<Integer, String> query = Query
+                .select(NUMBERS, new Func2<String, Integer>() {
+                    @Override
+                    public String call(Integer x) {
+                        calls[0]++;
+                        return "v" + x;
+                    }
+                })
+                .whereSource(new Func2<Boolean, Integer>() {
+                    @Override
+                    public Boolean call(Integer x) {
+                        return x % 2 == 0;
+                    }
+                })
+                .whereSource(new Predicate<Integer>() {
+                    @Override
+                    public boolean apply(Integer x) {
+                        return x < 6;
+                    }
+                });
+
+        assertEquals("Scan ArrayList\n  -> Where on source (2 predicates merged)\n  -> Select",
+                query.explain());
+        assertEquals(Arrays.asList("v2", "v4"), query.toList());
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    public void optimize_keepsSourceFilterBehindWhere() throws Exception {
+        final ProjectedQueryIterable<Integer, Integer> query = Query
+                .select(Arrays.asList(1, null, 2, 4), new Func2<Integer, Integer>() {
+                    @Override
+                    public Integer call(Integer x) {
+                        return x;
+                    }
+                })
+                .where(new Func2<Boolean, Integer>() {
+                    @Override
+                    public Boolean call(Integer x) {
+                        return x != null;
+                    }
+                })
+                // Throws on null, so it must not run before the where above
+                .whereSource(new Func2<Boolean, Integer>() {
+                    @Override
+                    public Boolean call(Integer x) {
+                        return x % 2 == 0;
+                    }
+                });
+
+        assertEquals("Scan ArrayList\n  -> Select\n  -> Where\n  -> Where on source",
+                query.explain());
+        assertEquals(Arrays.asList(2, 4), query.toList());
+    }
+
+    @Test
+    public void optimize_keepsSkipAfterSourceFilter() throws Exception {
+        final QueryIterable<String> query = Query
+                .select(NUMBERS, new Func2<String, Integer>() {
+                    @Override
+                    public String call(Integer x) {
+                        return "v" + x;
+                    }
+                })
+                .whereSource(new Func2<Boolean, Integer>() {
+                    @Override
+                    public Boolean call(Integer x) {
+                        return x % 2 == 0;
+                    }
+                })
+                .skip(1);
+
+        assertEquals(Arrays.asList("v4", "v6"), query.toList());
+    }
+
+    @Test
+    public void nestedSelect_staysFusedAndIndexed() throws Exception {
+        final List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            source.add(i);
+        }
+        final int[] calls = {0};
+        final QueryIterable<String> query = Query.select(
+                Query.select(source, new Func2<Integer, Integer>() {
+                    @Override
+                    public Integer call(Integer x) {
+                        calls[0]++;
+                        return x * 2;
+                    }
+                }),
+                new Func2<String, Integer>() {
+                    @Override
+                    public String call(Integer x) {
+                        return "v" + x;
+                    }
+                });
+
+        assertEquals("Scan ArrayList (100 elements)\n  -> Select\n  -> Select", query.explain());
+        assertEquals("v100", Query.at(query, 50));
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    public void nestedSelect_testsSourceOfOuterProjection() throws Exception {
+        final ProjectedQueryIterable<Integer, String> query = Query
+                .select(
+                        Query.select(NUMBERS, new Func2<Integer, Integer>() {
+                            @Override
+                            public Integer call(Integer x) {
+                                return x * 10;
+                            }
+                        }),
+                        new Func2<String, Integer>() {
+                            @Override
+                            public String call(Integer x) {
+                                return "v" + x;
+                            }
+                        })
+                .whereSource(new Func2<Boolean, Integer>() {
+                    @Override
+                    public Boolean call(Integer x) {
+                        return x > 30;
+                    }
+                });
+
+        assertEquals("Scan ArrayList\n  -> Select\n  -> Mark source\n  -> Where on source"
+                + "\n  -> Select", query.explain());
+        assertEquals(Arrays.asList("v40", "v50", "v60"), query.toList());
+    }
+}
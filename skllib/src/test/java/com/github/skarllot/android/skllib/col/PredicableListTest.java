@@ -0,0 +1,146 @@
+package com.github.skarllot.android.skllib.col;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class PredicableListTest {
+    private static final String[] FILTERS = {null, "", "a", "an", "ana", "an", "b", "ba", "x"};
+
+    private final int[] calls = {0};
+    private List<Item> items;
+
+    @Before
+    public void setUp() throws Exception {
+        items = new ArrayList<>();
+        for (String name : new String[]{"banana", "ananas", "cabana", "bandana", "pear", "anna"}) {
+            items.add(new Item(name, calls));
+        }
+    }
+
+    @Test
+    public void setFilter_refinedMatchesFullScan() throws Exception {
+        final PredicableList<Item> list = new PredicableList<>(items);
+        list.setRefinement(true);
+        for (String filter : FILTERS) {
+            list.setFilter(filter);
+            final PredicableList<Item> fresh = new PredicableList<>(items);
+            fresh.setFilter(filter);
+
+            assertEquals("filter " + filter,
+                    Query.toList(fresh.getSelection()), Query.toList(list.getSelection()));
+        }
+    }
+
+    @Test
+    public void setFilter_extendedTestsPreviousMatchesOnly() throws Exception {
+        final PredicableList<Item> list = new PredicableList<>(items);
+        list.setRefinement(true);
+        list.setFilter("an");
+        assertEquals(5, Query.count(list.getSelection()));
+
+        calls[0] = 0;
+        list.setFilter("ana");
+        assertEquals(4, Query.count(list.getSelection()));
+        assertEquals(5, calls[0]);
+    }
+
+    @Test
+    public void setFilter_withoutRefinementTestsEveryElement() throws Exception {
+        final PredicableList<Item> list = new PredicableList<>(items);
+        list.setFilter("an");
+        assertEquals(5, Query.count(list.getSelection()));
+
+        calls[0] = 0;
+        list.setFilter("ana");
+        assertEquals(4, Query.count(list.getSelection()));
+        assertEquals(items.size(), calls[0]);
+    }
+
+    @Test
+    public void getSelection_usesFilterCurrentOnIteration() throws Exception {
+        final PredicableList<Item> list = new PredicableList<>(items);
+        final Iterable<Item> selection = list.getSelection();
+
+        list.setFilter("pear");
+        assertEquals(Arrays.asList(items.get(4)), Query.toList(selection));
+        list.setFilter("anna");
+        assertEquals(Arrays.asList(items.get(5)), Query.toList(selection));
+    }
+
+    @Test
+    public void getSelection_seesTargetChanges() throws Exception {
+        final PredicableList<Item> list = new PredicableList<>(items);
+        list.setRefinement(true);
+        list.setFilter("pe");
+        assertEquals(1, Query.count(list.getSelection()));
+
+        items.add(new Item("peach", calls));
+        assertEquals(2, Query.count(list.getSelection()));
+        items.remove(4);
+        assertEquals(1, Query.count(list.getSelection()));
+        items.set(0, new Item("pepper", calls));
+        assertEquals(2, Query.count(list.getSelection()));
+    }
+
+    @Test
+    public void invalidate_testsChangedElementsAgain() throws Exception {
+        final PredicableList<Item> list = new PredicableList<>(items);
+        list.setRefinement(true);
+        list.setFilter("pe");
+        assertEquals(1, Query.count(list.getSelection()));
+
+        items.get(0).name = "pepper";
+        assertEquals(1, Query.count(list.getSelection()));
+        list.invalidate();
+        assertEquals(2, Query.count(list.getSelection()));
+    }
+
+    @Test
+    public void setCacheBudget_reusesPreviousSelection() throws Exception {
+        final PredicableList<Item> list = new PredicableList<>(items);
+        list.setCacheBudget(4096);
+        list.setFilter("ba");
+        Query.toList(list.getSelection());
+        list.setFilter("pe");
+        Query.toList(list.getSelection());
+
+        calls[0] = 0;
+        list.setFilter("ba");
+        assertEquals(3, Query.count(list.getSelection()));
+        assertEquals(0, calls[0]);
+        assertEquals(1, list.getCacheHits());
+    }
+
+    /**
+     * An element that counts how many times it was tested.
+     */
+    private static final class Item implements Searchable {
+        String name;
+        final int[] calls;
+
+        Item(String name, int[] calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public boolean match(String filter) {
+            calls[0]++;
+            return filter == null || name.contains(filter);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.skarllot.android.skllib.col;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class PrimitiveQueryTest {
+    private static final List<Integer> VALUES = Arrays.asList(4, -2, 7, 0, 7, 3);
+    private static final List<Integer> EMPTY = Collections.emptyList();
+
+    private static final IntSelector<Integer> INT = new IntSelector<Integer>() {
+        @Override
+        public int call(Integer x) {
+            return x;
+        }
+    };
+    private static final LongSelector<Integer> LONG = new LongSelector<Integer>() {
+        @Override
+        public long call(Integer x) {
+            return x;
+        }
+    };
+    private static final DoubleSelector<Integer> DOUBLE = new DoubleSelector<Integer>() {
+        @Override
+        public double call(Integer x) {
+            return x / 2.0;
+        }
+    };
+
+    @Test
+    public void intQuery_terminalsVisitEveryValue() throws Exception {
+        final IntQuery<Integer> query = Query.selectInt(VALUES, INT);
+
+        assertEquals(19, query.sum());
+        assertEquals(19 / 6.0, query.average(), 0);
+        assertEquals(7, query.max());
+        assertEquals(-2, query.min());
+        assertEquals(6, query.count());
+        assertArrayEquals(new int[]{4, -2, 7, 0, 7, 3}, query.toArray());
+    }
+
+    @Test
+    public void intQuery_terminalsSeeOnlyFilteredValues() throws Exception {
+        final IntQuery<Integer> query = Query.selectInt(VALUES, INT).where(new IntPredicate() {
+            @Override
+            public boolean apply(int value) {
+                return value % 2 != 0;
+            }
+        });
+
+        assertEquals(17, query.sum());
+        assertEquals(17 / 3.0, query.average(), 0);
+        assertEquals(7, query.max());
+        assertEquals(3, query.min());
+        assertEquals(3, query.count());
+        assertArrayEquals(new int[]{7, 7, 3}, query.toArray());
+    }
+
+    @Test
+    public void intQuery_sumDoesNotOverflowInt() throws Exception {
+        final List<Integer> values = Arrays.asList(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+        assertEquals(2L * Integer.MAX_VALUE, Query.selectInt(values, INT).sum());
+        assertEquals(Integer.MAX_VALUE, Query.selectInt(values, INT).average(), 0);
+    }
+
+    @Test
+    public void intQuery_toArrayGrowsPastInitialCapacity() throws Exception {
+        final Integer[] values = new Integer[100];
+        final int[] expected = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+            expected[i] = i;
+        }
+
+        assertArrayEquals(expected, Query.selectInt(Arrays.asList(values), INT).toArray());
+    }
+
+    @Test
+    public void intQuery_emptyTerminals() throws Exception {
+        final IntQuery<Integer> query = Query.selectInt(EMPTY, INT);
+
+        assertEquals(0, query.sum());
+        assertEquals(0, query.count());
+        assertEquals(0, query.toArray().length);
+        try {
+            query.max();
+            fail();
+        } catch (NoSuchElementException ignored) {
+        }
+        try {
+            query.average();
+            fail();
+        } catch (NoSuchElementException ignored) {
+        }
+    }
+
+    @Test
+    public void longQuery_terminalsVisitEveryValue() throws Exception {
+        final LongQuery<Integer> query = Query.selectLong(VALUES, LONG);
+
+        assertEquals(19, query.sum());
+        assertEquals(19 / 6.0, query.average(), 0);
+        assertEquals(7, query.max());
+        assertEquals(-2, query.min());
+        assertEquals(6, query.count());
+        assertArrayEquals(new long[]{4, -2, 7, 0, 7, 3}, query.toArray());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void longQuery_sumThrowsOnOverflow() throws Exception {
+        Query.selectLong(Arrays.asList(1, 2), new LongSelector<Integer>() {
+            @Override
+            public long call(Integer x) {
+                return Long.MAX_VALUE - 1;
+            }
+        }).sum();
+    }
+
+    @Test
+    public void longQuery_averageDoesNotOverflow() throws Exception {
+        final LongQuery<Integer> query = Query.selectLong(Arrays.asList(1, 2),
+                new LongSelector<Integer>() {
+                    @Override
+                    public long call(Integer x) {
+                        return Long.MAX_VALUE;
+                    }
+                });
+
+        assertEquals(Long.MAX_VALUE, query.average(), 0);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void longQuery_minThrowsWhenEmpty() throws Exception {
+        Query.selectLong(EMPTY, LONG).min();
+    }
+
+    @Test
+    public void doubleQuery_terminalsVisitEveryValue() throws Exception {
+        final DoubleQuery<Integer> query = Query.selectDouble(VALUES, DOUBLE);
+
+        assertEquals(9.5, query.sum(), 0);
+        assertEquals(9.5 / 6, query.average(), 0);
+        assertEquals(3.5, query.max(), 0);
+        assertEquals(-1, query.min(), 0);
+        assertEquals(6, query.count());
+        assertArrayEquals(new double[]{2, -1, 3.5, 0, 3.5, 1.5}, query.toArray(), 0);
+    }
+
+    @Test
+    public void doubleQuery_countSeesOnlyFilteredValues() throws Exception {
+        final DoubleQuery<Integer> query = Query.selectDouble(VALUES, DOUBLE)
+                .where(new DoublePredicate() {
+                    @Override
+                    public boolean apply(double value) {
+                        return value > 1;
+                    }
+                });
+
+        assertEquals(4, query.count());
+        assertEquals(1.5, query.min(), 0);
+        assertEquals(0, Query.selectDouble(EMPTY, DOUBLE).sum(), 0);
+    }
+}
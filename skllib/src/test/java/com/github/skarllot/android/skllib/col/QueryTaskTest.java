@@ -0,0 +1,116 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.github.skarllot.android.skllib.Func2;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class QueryTaskTest {
+    private static final Func2<Boolean, Integer> NONE = new Func2<Boolean, Integer>() {
+        @Override
+        public Boolean call(Integer x) {
+            return false;
+        }
+    };
+
+    private final List<Runnable> jobs = new ArrayList<>();
+    private final Executor executor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            jobs.add(command);
+        }
+    };
+    private QueryTask<?> task;
+    private int read;
+
+    // Counts the elements read and cancels the task at element 100
+    private final Iterable<Integer> source = new Iterable<Integer>() {
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<Integer>() {
+                int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < 1000000;
+                }
+
+                @Override
+                public Integer next() {
+                    read++;
+                    if (next == 100) {
+                        task.cancel();
+                    }
+                    return next++;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        jobs.clear();
+        read = 0;
+    }
+
+    @Test
+    public void toListAsync_stopsReadingWhenCancelled() throws Exception {
+        task = Query.toListAsync(Query.where(source, NONE), executor,
+                new FailingCallback<List<Integer>>());
+        jobs.get(0).run();
+
+        assertTrue(task.isCancelled());
+        assertEquals(101, read);
+    }
+
+    @Test
+    public void countAsync_stopsReadingWhenCancelled() throws Exception {
+        task = Query.countAsync(Query.where(source, NONE), executor,
+                new FailingCallback<Integer>());
+        jobs.get(0).run();
+
+        assertTrue(task.isCancelled());
+        assertEquals(101, read);
+    }
+
+    @Test
+    public void cancel_beforeRunReadsNothing() throws Exception {
+        task = Query.toListAsync(source, executor, new FailingCallback<List<Integer>>());
+        assertTrue(task.cancel());
+        jobs.get(0).run();
+
+        assertEquals(0, read);
+    }
+
+    /**
+     * A callback that fails the test when called.
+     *
+     * @param <R> The type of result.
+     */
+    private static final class FailingCallback<R> implements QueryCallback<R> {
+        @Override
+        public void onError(RuntimeException e) {
+            fail("onError " + e);
+        }
+
+        @Override
+        public void onResult(R result) {
+            fail("onResult " + result);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.skarllot.android.skllib.col;
+
+import com.github.skarllot.android.skllib.Func2;
+import com.github.skarllot.android.skllib.Func3;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class QueryTest {
+    private static final Func2<Integer, Integer> IDENTITY = new Func2<Integer, Integer>() {
+        @Override
+        public Integer call(Integer x) {
+            return x;
+        }
+    };
+    private static final Func3<String, Integer, Integer> PAIR =
+            new Func3<String, Integer, Integer>() {
+                @Override
+                public String call(Integer outer, Integer inner) {
+                    return outer + "-" + inner;
+                }
+            };
+
+    @Test
+    public void join_followsOuterOrderForAnySize() throws Exception {
+        final List<Integer> outer = Arrays.asList(3, 1, 2);
+
+        assertEquals(Arrays.asList("3-3", "1-1", "2-2"),
+                Query.join(outer, Arrays.asList(1, 2, 3, 4, 5), IDENTITY, IDENTITY, PAIR).toList());
+        assertEquals(Arrays.asList("3-3", "1-1", "2-2"),
+                Query.join(outer, Arrays.asList(2, 3, 1), IDENTITY, IDENTITY, PAIR).toList());
+    }
+
+    @Test
+    public void join_returnsMatchesInInnerOrder() throws Exception {
+        final Func2<Integer, Integer> tens = new Func2<Integer, Integer>() {
+            @Override
+            public Integer call(Integer x) {
+                return x / 10;
+            }
+        };
+
+        assertEquals(Arrays.asList("2-21", "2-20", "1-12", "1-10"),
+                Query.join(Arrays.asList(2, 1), Arrays.asList(12, 21, 10, 20, 30),
+                        IDENTITY, tens, PAIR).toList());
+    }
+
+    @Test
+    public void except_nullComparerUsesDefaultEquality() throws Exception {
+        assertEquals(Arrays.asList(3, 1, 5),
+                Query.except(Arrays.asList(3, 1, 2, 5), Arrays.asList(2, 9), null).toList());
+    }
+
+    @Test
+    public void exceptOrdered_dropsElementsComparingEqual() throws Exception {
+        final Comparator<String> ignoreCase = new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return a.compareToIgnoreCase(b);
+            }
+        };
+
+        assertEquals(Arrays.asList("b", "d"),
+                Query.exceptOrdered(Arrays.asList("b", "A", "d", "c"), Arrays.asList("C", "a"),
+                        ignoreCase).toList());
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.skarllot.android.skllib.col;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class SearchIndexTest {
+    private static final String[] WORDS = {
+            "Alpha", "bravo", "Charlie", "délta", "echo", "Foxtrot", "golf", "HOTEL"};
+    private static final String[] FILTERS = {
+            "alp", "ALPHA  BR", "e", "", "123", "zzz", "o d", "lie delta 9", "ha", "delt",
+            "DÉLTA", " golf", "otel "};
+
+    private List<Item> items;
+    private SearchIndex<Item> index;
+
+    @Before
+    public void setUp() throws Exception {
+        final Random random = new Random(3);
+        items = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            items.add(new Item(WORDS[random.nextInt(WORDS.length)] + "  "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(1000)));
+        }
+        index = new SearchIndex<>(items);
+    }
+
+    @Test
+    public void search_matchesLinearScan() throws Exception {
+        for (String filter : FILTERS) {
+            final List<Item> expected = new ArrayList<>();
+            for (Item item : items) {
+                if (item.match(filter)) {
+                    expected.add(item);
+                }
+            }
+
+            assertEquals("filter " + filter, expected, index.search(filter).toList());
+            assertEquals("filter " + filter, !expected.isEmpty(), index.matchAny(filter));
+        }
+    }
+
+    @Test
+    public void search_missingTrigramFindsNothing() throws Exception {
+        assertEquals(0, index.search("xyz").count());
+        assertFalse(index.matchAny("xyz"));
+    }
+
+    @Test
+    public void size_countsEveryElement() throws Exception {
+        assertEquals(items.size(), index.size());
+        assertTrue(index.getTrigramCount() > 0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void search_rejectsNullFilter() throws Exception {
+        index.search(null);
+    }
+
+    /**
+     * An element searched by its name.
+     */
+    private static final class Item extends NormalizedSearchable implements IndexableSearchable {
+        final String name;
+
+        Item(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getIndexText() {
+            return name;
+        }
+
+        @Override
+        protected String getSearchText() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.skarllot.android.skllib.col;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+// Authors:
+//  Fabrício Godoy <skarllot@gmail.com>, 2015.
+
+public class SearchableUtilTest {
+    @Test
+    public void normalize_foldsCaseDiacriticsAndWhitespace() throws Exception {
+        final char[] normalized = SearchableUtil.normalize("  São\t PAULO\n Café ");
+
+        assertEquals("sao paulo cafe", new String(normalized));
+        assertEquals(0, SearchableUtil.normalize(null).length);
+        assertEquals(0, SearchableUtil.normalize("").length);
+        assertEquals(0, SearchableUtil.normalize(" \t ").length);
+    }
+
+    @Test
+    public void contains_findsFilterAnywhere() throws Exception {
+        final char[] text = SearchableUtil.normalize("banana split");
+
+        assertTrue(SearchableUtil.contains(text, SearchableUtil.normalize("")));
+        assertTrue(SearchableUtil.contains(text, SearchableUtil.normalize("BAN")));
+        assertTrue(SearchableUtil.contains(text, SearchableUtil.normalize("nana")));
+        assertTrue(SearchableUtil.contains(text, SearchableUtil.normalize("a  s")));
+        assertTrue(SearchableUtil.contains(text, SearchableUtil.normalize("split")));
+        assertFalse(SearchableUtil.contains(text, SearchableUtil.normalize("splits")));
+        assertFalse(SearchableUtil.contains(text, SearchableUtil.normalize("nab")));
+        assertFalse(SearchableUtil.contains(new char[0], SearchableUtil.normalize("a")));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void contains_rejectsNullText() throws Exception {
+        SearchableUtil.contains(null, new char[0]);
+    }
+
+    @Test
+    public void matchNormalized_agreesWithMatch() throws Exception {
+        final Item item = new Item("Crème Brûlée");
+
+        for (String filter : new String[]{"creme", "BRULEE", "e b", "me  br", "cream", ""}) {
+            assertEquals("filter " + filter, item.match(filter),
+                    item.matchNormalized(SearchableUtil.normalize(filter)));
+        }
+        assertTrue(item.match("brûlée"));
+        assertTrue(item.match(null));
+        assertFalse(item.match("cream"));
+    }
+
+    @Test
+    public void matchAny_testsEveryElement() throws Exception {
+        final Iterable<Item> items = Arrays.asList(new Item("Ação"), new Item("Reação"));
+
+        assertTrue(SearchableUtil.matchAny(items, "REACAO"));
+        assertTrue(SearchableUtil.matchAny(items, null));
+        assertFalse(SearchableUtil.matchAny(items, "acoes"));
+        assertFalse(SearchableUtil.matchAny(null, "acao"));
+    }
+
+    @Test
+    public void invalidate_normalizesChangedText() throws Exception {
+        final Item item = new Item("first");
+        assertTrue(item.match("first"));
+
+        item.name = "second";
+        assertTrue(item.match("first"));
+        item.invalidate();
+        assertFalse(item.match("first"));
+        assertTrue(item.match("second"));
+    }
+
+    /**
+     * An element searched by its name.
+     */
+    private static final class Item extends NormalizedSearchable {
+        String name;
+
+        Item(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected String getSearchText() {
+            return name;
+        }
+    }
+}